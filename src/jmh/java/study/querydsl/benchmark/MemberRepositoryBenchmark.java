@@ -0,0 +1,108 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dataset.DatasetGenerator;
+import study.querydsl.dataset.DatasetProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 같은 username 단건 조회를 5가지 방식으로 비교한다.
+ * 모드(thrpt, avgt), -prof gc 는 build.gradle 의 jmh 설정을 따른다.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberRepositoryBenchmark {
+
+    @Param({"10000"})
+    int memberCount;
+
+    @Param({"10"})
+    int teamCount;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate readOnly;
+
+    MemberJpaRepository memberJpaRepository;
+    MemberRepository memberRepository;
+    MemberTestRepository memberTestRepository;
+
+    String username;
+    MemberSearchCondition condition;
+    PageRequest pageRequest = PageRequest.of(0, 10);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("repositoryBenchmark");
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        seed();
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        username = "member" + (memberCount / 2);
+        condition = new MemberSearchCondition();
+        condition.setUsername(username);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> jpqlFindByUsername() {
+        return readOnly.execute(status -> memberJpaRepository.findByUsername(username));
+    }
+
+    @Benchmark
+    public List<Member> querydslFindByUsername() {
+        return readOnly.execute(status -> memberJpaRepository.findByUsername_Querydsl(username));
+    }
+
+    @Benchmark
+    public List<Member> springDataFindByUsername() {
+        return readOnly.execute(status -> memberRepository.findByUsername(username));
+    }
+
+    @Benchmark
+    public Iterable<Member> predicateExecutorFindAll() {
+        return readOnly.execute(status -> memberRepository.findAll(member.username.eq(username)));
+    }
+
+    @Benchmark
+    public Page<Member> applyPagination() {
+        return readOnly.execute(status -> memberTestRepository.applyPagination(condition, pageRequest));
+    }
+
+    private void seed() {
+        DatasetProperties dataset = new DatasetProperties();
+        dataset.setMemberCount(memberCount);
+        dataset.setTeamCount(teamCount);
+        context.getBean(DatasetGenerator.class).generate(dataset);
+    }
+}
@@ -0,0 +1,164 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.projection.GeneratedProjections;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * row -> DTO 변환만 방식별로 비교한다. (DB 없이 select 결과와 같은 Object[] 를 넘긴다)
+ * 한 번 호출에 ROWS 건을 변환하므로 시간 / -prof gc 의 gc.alloc.rate.norm 은 row 당 값이다.
+ *
+ * - bean / fields / constructor / queryProjection : Querydsl 기본 (row 마다 리플렉션)
+ * - generated* : GeneratedProjections (MethodHandle / LambdaMetafactory 매퍼 재사용)
+ */
+@State(Scope.Benchmark)
+@OperationsPerInvocation(ProjectionBenchmark.ROWS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectionBenchmark {
+
+    static final int ROWS = 1000;
+
+    Object[][] memberRows;
+    Object[][] memberTeamRows;
+
+    FactoryExpression<MemberDto> memberBean;
+    FactoryExpression<MemberDto> memberFields;
+    FactoryExpression<MemberDto> memberConstructor;
+    FactoryExpression<MemberDto> memberQueryProjection;
+    FactoryExpression<MemberDto> memberGeneratedBean;
+    FactoryExpression<MemberDto> memberGeneratedFields;
+    FactoryExpression<MemberDto> memberGeneratedConstructor;
+
+    FactoryExpression<UserDto> userFields;
+    FactoryExpression<UserDto> userConstructor;
+    FactoryExpression<UserDto> userGeneratedFields;
+    FactoryExpression<UserDto> userGeneratedConstructor;
+
+    FactoryExpression<MemberTeamDto> memberTeamConstructor;
+    FactoryExpression<MemberTeamDto> memberTeamQueryProjection;
+    FactoryExpression<MemberTeamDto> memberTeamGeneratedConstructor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        memberRows = new Object[ROWS][];
+        memberTeamRows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            memberRows[i] = new Object[]{"member" + i, i % 100};
+            memberTeamRows[i] = new Object[]{(long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)};
+        }
+
+        memberBean = Projections.bean(MemberDto.class, member.username, member.age);
+        memberFields = Projections.fields(MemberDto.class, member.username, member.age);
+        memberConstructor = Projections.constructor(MemberDto.class, member.username, member.age);
+        memberQueryProjection = new QMemberDto(member.username, member.age);
+        memberGeneratedBean = GeneratedProjections.bean(MemberDto.class, member.username, member.age);
+        memberGeneratedFields = GeneratedProjections.fields(MemberDto.class, member.username, member.age);
+        memberGeneratedConstructor = GeneratedProjections.constructor(MemberDto.class, member.username, member.age);
+
+        userFields = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+        userConstructor = Projections.constructor(UserDto.class, member.username, member.age);
+        userGeneratedFields = GeneratedProjections.fields(UserDto.class, member.username.as("name"), member.age);
+        userGeneratedConstructor = GeneratedProjections.constructor(UserDto.class, member.username, member.age);
+
+        memberTeamConstructor = Projections.constructor(MemberTeamDto.class,
+                member.id, member.username, member.age, team.id, team.name);
+        memberTeamQueryProjection = new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+        memberTeamGeneratedConstructor = GeneratedProjections.constructor(MemberTeamDto.class,
+                member.id, member.username, member.age, team.id, team.name);
+    }
+
+    @Benchmark
+    public void memberDtoBean(Blackhole bh) {
+        map(memberBean, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberDtoFields(Blackhole bh) {
+        map(memberFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberDtoConstructor(Blackhole bh) {
+        map(memberConstructor, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberDtoQueryProjection(Blackhole bh) {
+        map(memberQueryProjection, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberDtoGeneratedBean(Blackhole bh) {
+        map(memberGeneratedBean, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberDtoGeneratedFields(Blackhole bh) {
+        map(memberGeneratedFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberDtoGeneratedConstructor(Blackhole bh) {
+        map(memberGeneratedConstructor, memberRows, bh);
+    }
+
+    @Benchmark
+    public void userDtoFields(Blackhole bh) {
+        map(userFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void userDtoConstructor(Blackhole bh) {
+        map(userConstructor, memberRows, bh);
+    }
+
+    @Benchmark
+    public void userDtoGeneratedFields(Blackhole bh) {
+        map(userGeneratedFields, memberRows, bh);
+    }
+
+    @Benchmark
+    public void userDtoGeneratedConstructor(Blackhole bh) {
+        map(userGeneratedConstructor, memberRows, bh);
+    }
+
+    @Benchmark
+    public void memberTeamDtoConstructor(Blackhole bh) {
+        map(memberTeamConstructor, memberTeamRows, bh);
+    }
+
+    @Benchmark
+    public void memberTeamDtoQueryProjection(Blackhole bh) {
+        map(memberTeamQueryProjection, memberTeamRows, bh);
+    }
+
+    @Benchmark
+    public void memberTeamDtoGeneratedConstructor(Blackhole bh) {
+        map(memberTeamGeneratedConstructor, memberTeamRows, bh);
+    }
+
+    // 실제 조회처럼 row 마다 새 배열을 넘긴다. (복사 비용은 모든 방식에 똑같이 들어간다)
+    private static void map(FactoryExpression<?> projection, Object[][] rows, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row.clone()));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class BatchReport {
+
+    private final String jobName;
+    private final boolean resumed;
+    // 이전 실행에서 끝나서 건너뛴 chunk 수
+    private final int skipped;
+    private final int failed;
+    private final List<ChunkResult> chunks;
+    private final long elapsedMillis;
+
+    public BatchReport(String jobName, boolean resumed, int skipped, int failed,
+                       List<ChunkResult> chunks, long elapsedMillis) {
+        this.jobName = jobName;
+        this.resumed = resumed;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isCompleted() {
+        return failed == 0;
+    }
+
+    public long getRows() {
+        return chunks.stream().mapToLong(ChunkResult::getRows).sum();
+    }
+
+    @Getter
+    @ToString
+    public static class ChunkResult {
+
+        private final long rangeStart;
+        private final long rangeEnd;
+        private final int rows;
+        private final long elapsedMillis;
+
+        public ChunkResult(long rangeStart, long rangeEnd, int rows, long elapsedMillis) {
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+        }
+    }
+}
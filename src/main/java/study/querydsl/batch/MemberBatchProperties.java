@@ -0,0 +1,20 @@
+package study.querydsl.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 회원 id 범위 병렬 배치 설정 (member.batch.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.batch")
+public class MemberBatchProperties {
+
+    // chunk 하나가 맡는 id 폭. 한 트랜잭션에서 읽고 바꾸는 최대 row 수이기도 하다.
+    private int rangeSize = 1000;
+
+    // 동시에 처리하는 chunk 수. worker 마다 커넥션을 하나씩 잡으므로 커넥션 풀 크기보다 작게 둔다.
+    private int parallelism = 4;
+}
@@ -0,0 +1,177 @@
+package study.querydsl.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.entity.BatchJob;
+import study.querydsl.entity.BatchJobChunk;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * member 의 id 공간을 일정한 폭의 범위(chunk)로 나눠 병렬로 처리한다.
+ *
+ * chunk 마다 worker 스레드에서 새 트랜잭션(= 새 EntityManager, 새 커넥션)을 열고,
+ * 콜백과 checkpoint(BatchJobChunk) 저장을 같은 트랜잭션으로 커밋한다.
+ * 실패한 chunk 는 롤백되고 나머지는 계속 진행하며, 같은 jobName 으로 다시 실행하면 checkpoint 가 없는 chunk 만 처리한다.
+ *
+ * id 범위는 처음 시작할 때의 min / max(id) 로 고정하므로, 그 뒤에 추가된 회원은 다음 작업에서 처리된다.
+ * 끝난 작업을 같은 이름으로 다시 실행하면 checkpoint 를 지우고 처음부터 다시 한다.
+ */
+@Slf4j
+@Component
+public class MemberBatchRunner {
+
+    private final EntityManager em;
+    private final TransactionTemplate transaction;
+    private final MemberBatchProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public MemberBatchRunner(EntityManager em, PlatformTransactionManager transactionManager,
+                             MemberBatchProperties properties, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public BatchReport run(String jobName, MemberChunkProcessor processor) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "batch commits per chunk and must not run inside a transaction");
+        Assert.isTrue(properties.getRangeSize() > 0, "rangeSize must be greater than zero");
+        Assert.isTrue(properties.getParallelism() > 0, "parallelism must be greater than zero");
+
+        long start = System.nanoTime();
+        BatchJob job = transaction.execute(status -> startOrResume(jobName));
+        if (job == null) {
+            return new BatchReport(jobName, false, 0, 0, List.of(), 0);
+        }
+        Set<Long> done = transaction.execute(status -> new HashSet<>(em.createQuery(
+                        "select c.rangeStart from BatchJobChunk c where c.jobName = :jobName", Long.class)
+                .setParameter("jobName", jobName)
+                .getResultList()));
+        boolean resumed = !done.isEmpty();
+
+        List<Callable<BatchReport.ChunkResult>> tasks = new ArrayList<>();
+        int skipped = 0;
+        for (long from = job.getMinId(); from <= job.getMaxId(); from += job.getRangeSize()) {
+            long to = Math.min(from + job.getRangeSize() - 1, job.getMaxId());
+            if (done.contains(from)) {
+                skipped++;
+                continue;
+            }
+            long rangeStart = from;
+            tasks.add(() -> processChunk(jobName, rangeStart, to, processor));
+        }
+        log.info("batch {} {}. ids=[{}, {}], chunks={}, skipped={}", jobName, resumed ? "resumed" : "started",
+                job.getMinId(), job.getMaxId(), tasks.size(), skipped);
+
+        List<BatchReport.ChunkResult> chunks = new ArrayList<>();
+        int failed = 0;
+        for (BatchReport.ChunkResult result : invokeAll(tasks)) {
+            if (result == null) {
+                failed++;
+            } else {
+                chunks.add(result);
+            }
+        }
+        if (failed == 0) {
+            transaction.executeWithoutResult(status -> em.find(BatchJob.class, jobName).complete());
+        }
+
+        BatchReport report = new BatchReport(jobName, resumed, skipped, failed, chunks,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("batch {} {}. rows={}, chunks={}, skipped={}, failed={}, elapsed={}ms", jobName,
+                failed == 0 ? "completed" : "incomplete", report.getRows(), chunks.size(), skipped, failed,
+                report.getElapsedMillis());
+        return report;
+    }
+
+    private BatchJob startOrResume(String jobName) {
+        BatchJob job = em.find(BatchJob.class, jobName);
+        if (job != null && !job.isCompleted()) {
+            return job;
+        }
+        if (job != null) {
+            em.createQuery("delete from BatchJobChunk c where c.jobName = :jobName")
+                    .setParameter("jobName", jobName)
+                    .executeUpdate();
+            em.remove(job);
+            em.flush();
+        }
+        Object[] bounds = em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class)
+                .getSingleResult();
+        if (bounds[0] == null) {
+            return null;
+        }
+        job = new BatchJob(jobName, (Long) bounds[0], (Long) bounds[1], properties.getRangeSize());
+        em.persist(job);
+        return job;
+    }
+
+    /**
+     * @return 실패하면 null. 예외는 로그만 남기고 다음 실행에서 다시 처리한다.
+     */
+    private BatchReport.ChunkResult processChunk(String jobName, long from, long to, MemberChunkProcessor processor) {
+        long start = System.nanoTime();
+        try {
+            BatchReport.ChunkResult result = transaction.execute(status -> {
+                List<Member> members = em.createQuery(
+                                "select m from Member m where m.id between :from and :to order by m.id", Member.class)
+                        .setParameter("from", from)
+                        .setParameter("to", to)
+                        .getResultList();
+                processor.process(em, members);
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                em.persist(new BatchJobChunk(jobName, from, to, members.size(), elapsed));
+                return new BatchReport.ChunkResult(from, to, members.size(), elapsed);
+            });
+            Timer.builder("member.batch.chunk")
+                    .description("batch chunk latency")
+                    .tag("job", jobName)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("batch {} chunk [{}, {}]. rows={}, elapsed={}ms, {} rows/s", jobName, from, to,
+                    result.getRows(), result.getElapsedMillis(), Math.round(result.getRowsPerSecond()));
+            return result;
+        } catch (RuntimeException e) {
+            log.warn("batch {} chunk [{}, {}] failed", jobName, from, to, e);
+            return null;
+        }
+    }
+
+    private List<BatchReport.ChunkResult> invokeAll(List<Callable<BatchReport.ChunkResult>> tasks) {
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        try {
+            List<BatchReport.ChunkResult> results = new ArrayList<>(tasks.size());
+            for (Future<BatchReport.ChunkResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("batch chunk failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
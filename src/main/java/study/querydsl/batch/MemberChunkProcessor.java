@@ -0,0 +1,16 @@
+package study.querydsl.batch;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+
+/**
+ * chunk 하나를 처리하는 콜백. worker 스레드의 트랜잭션 안에서 불리고, 예외를 던지면 그 chunk 만 롤백된다.
+ * members 는 em 에 영속 상태이므로 값을 바꾸면 chunk 커밋 때 반영된다.
+ */
+@FunctionalInterface
+public interface MemberChunkProcessor {
+
+    void process(EntityManager em, List<Member> members);
+}
@@ -0,0 +1,76 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 회원 검색 페이징의 total count 캐시
+ * 키는 정규화된 검색 조건이고, TTL 과 최대 크기로 제한한다.
+ * Member / Team 이 변경되면 {@link MemberSearchCacheListener} 나 벌크 연산에서 전체 무효화한다.
+ */
+@Component
+public class MemberCountCache {
+
+    private static final Object SYNCHRONIZATION_KEY = new Object();
+
+    private final Cache<MemberSearchCondition, Long> counts;
+
+    public MemberCountCache(@Value("${member.search.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${member.search.count-cache.max-size:10000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public long getOrCount(MemberSearchCondition condition, LongSupplier countQuery) {
+        // 쓰기 트랜잭션 안에서는 커밋되지 않은 데이터가 보이므로 캐시를 거치지 않는다.
+        if (!isCacheable()) {
+            return countQuery.getAsLong();
+        }
+        return counts.get(condition.normalized(), key -> countQuery.getAsLong());
+    }
+
+    /**
+     * 캐시된 count 가 있으면 반환하고, 없거나 캐시를 쓸 수 없는 트랜잭션이면 null
+     */
+    public Long getIfPresent(MemberSearchCondition condition) {
+        return isCacheable() ? counts.getIfPresent(condition.normalized()) : null;
+    }
+
+    /**
+     * 즉시 비우고, 트랜잭션 안이라면 완료 시점에 한번 더 비운다.
+     * (커밋 전에 다른 요청이 이전 값으로 다시 채워두는 경우 대비)
+     */
+    public void invalidateAll() {
+        counts.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(SYNCHRONIZATION_KEY)) {
+            TransactionSynchronizationManager.bindResource(SYNCHRONIZATION_KEY, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SYNCHRONIZATION_KEY);
+                    counts.invalidateAll();
+                }
+            });
+        }
+    }
+
+    public long size() {
+        return counts.estimatedSize();
+    }
+
+    private static boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
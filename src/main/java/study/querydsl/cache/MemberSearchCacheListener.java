@@ -0,0 +1,87 @@
+package study.querydsl.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Objects;
+
+/**
+ * Member, Team 엔티티 리스너
+ * 하이버네이트가 스프링 빈 컨테이너를 통해 생성하므로 생성자 주입을 받을 수 있다.
+ * 벌크 update/delete 는 리스너를 거치지 않으니 호출하는 쪽에서 직접 무효화해야 한다.
+ *
+ * count 캐시는 전체를 비우고, 검색 결과 캐시에는 변경 전 / 후 상태를 넘겨 트랜잭션 완료 시점에 걸리는 항목만 지우게 한다.
+ * 변경 전 상태는 @PreUpdate / @PreRemove 시점에 영속성 컨텍스트의 loaded state 에서 읽는다.
+ */
+@RequiredArgsConstructor
+public class MemberSearchCacheListener {
+
+    private final MemberCountCache countCache;
+    private final MemberSearchResultCache resultCache;
+    // 리스너는 EntityManagerFactory 를 만드는 도중에 생성되므로 EntityManager 는 나중에 꺼낸다.
+    private final ObjectProvider<EntityManager> entityManager;
+
+    @PostPersist
+    public void afterInsert(Object entity) {
+        countCache.invalidateAll();
+        if (entity instanceof Member member) {
+            resultCache.evictMember(MemberState.of(member.getUsername(), member.getAge(), member.getTeam()));
+        } else if (entity instanceof Team team) {
+            // 새 팀은 아직 회원이 없으므로 같은 이름 필터만 정리한다.
+            resultCache.evictTeam(null, team.getName());
+        }
+    }
+
+    @PreRemove
+    public void beforeDelete(Object entity) {
+        countCache.invalidateAll();
+        // 캐시는 커밋된 상태로 채워졌으므로 지우기 전에 고친 값이 있으면 loaded state 도 같이 본다.
+        evictChanged(entity, true);
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        countCache.invalidateAll();
+    }
+
+    @PreUpdate
+    public void beforeUpdate(Object entity) {
+        evictChanged(entity, false);
+    }
+
+    private void evictChanged(Object entity, boolean deleting) {
+        EntityEntry entry = entityManager.getObject().unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().getEntry(entity);
+        if (entry == null) {
+            resultCache.invalidateAll();
+            return;
+        }
+
+        if (entity instanceof Member member) {
+            MemberState after = MemberState.of(member.getUsername(), member.getAge(), member.getTeam());
+            MemberState before = MemberState.of(
+                    (String) entry.getLoadedValue("username"),
+                    (Integer) entry.getLoadedValue("age"),
+                    (Team) entry.getLoadedValue("team"));
+            resultCache.evictMember(before, after);
+        } else if (entity instanceof Team team) {
+            String before = (String) entry.getLoadedValue("name");
+            if (deleting) {
+                // 회원이 남은 팀은 지울 수 없으므로 같은 이름 필터만 정리한다.
+                resultCache.evictTeam(null, before, team.getName());
+            } else if (!Objects.equals(before, team.getName())) {
+                // 이름으로 거른 항목은 이전 / 새 이름만, 이름 조건이 없는 항목은 이 팀 회원이 들어 있을 때만 지운다.
+                resultCache.evictTeam(team.getId(), before, team.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.ApproximatePage;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 결과(List / Page) 캐시 (member.search.result-cache.enabled=true 일 때만)
+ * 키는 정규화된 검색 조건 + pageable 이고, TTL 과 캐시된 row 수 합계로 제한한다.
+ * 캐시된 결과는 여러 요청이 공유하므로 꺼낸 DTO 를 수정하면 안 된다.
+ *
+ * {@link MemberSearchCacheListener} 가 알려주는 변경(회원의 변경 전 / 후 상태, 팀 이름)은 트랜잭션마다 모아 두었다가
+ * 완료 시점에 한 번만 지운다. 지울 항목은 username / teamName 으로 색인한 키 중에서 조건만 비교해 고르므로
+ * 캐시된 row 를 훑지 않는다. (팀 이름 변경만 팀 조건이 없는 항목의 row 를 본다)
+ * 한 트랜잭션의 변경이 max-tracked-changes 를 넘으면 골라내지 않고 전체를 한 번 비운다. 벌크 연산도 전체 무효화.
+ */
+@Component
+public class MemberSearchResultCache {
+
+    private static final Object SYNCHRONIZATION_KEY = new Object();
+
+    private final boolean enabled;
+    private final int maxTrackedChanges;
+    private final Cache<Key, Object> results;
+    // 조건의 username / teamName 으로 찾는 색인. 둘 다 없는 조건(나이만, 조건 없음)은 others.
+    private final Map<String, Set<Key>> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, Set<Key>> byTeamName = new ConcurrentHashMap<>();
+    private final Set<Key> others = ConcurrentHashMap.newKeySet();
+
+    public MemberSearchResultCache(@Value("${member.search.result-cache.enabled:false}") boolean enabled,
+                                   @Value("${member.search.result-cache.ttl:30s}") Duration ttl,
+                                   @Value("${member.search.result-cache.max-rows:100000}") long maxRows,
+                                   @Value("${member.search.result-cache.max-tracked-changes:1000}") int maxTrackedChanges) {
+        this.enabled = enabled;
+        this.maxTrackedChanges = maxTrackedChanges;
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxRows)
+                .<Key, Object>weigher((key, value) -> rows(value).size() + 1)
+                // 만료 / 크기 초과로 빠진 키는 색인에서도 뺀다. (직접 지우는 경우는 unindex 를 부른다)
+                .evictionListener((key, value, cause) -> unindex(key))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<MemberTeamDto> getList(MemberSearchCondition condition, Supplier<List<MemberTeamDto>> query) {
+        if (!isCacheable()) {
+            return query.get();
+        }
+        return (List<MemberTeamDto>) results.get(new Key(condition.normalized(), null), key -> {
+            List<MemberTeamDto> rows = List.copyOf(query.get());
+            index(key);
+            return rows;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page<MemberTeamDto> getPage(MemberSearchCondition condition, Pageable pageable, Supplier<Page<MemberTeamDto>> query) {
+        if (!isCacheable()) {
+            return query.get();
+        }
+        return (Page<MemberTeamDto>) results.get(new Key(condition.normalized(), pageable), key -> {
+            Page<MemberTeamDto> page = query.get();
+            index(key);
+            if (page instanceof ApproximatePage<MemberTeamDto> approximate) {
+                return new ApproximatePage<>(List.copyOf(page.getContent()), page.getPageable(), page.getTotalElements(),
+                        approximate.getTotalLowerBound(), approximate.getTotalUpperBound());
+            }
+            return new PageImpl<>(List.copyOf(page.getContent()), page.getPageable(), page.getTotalElements());
+        });
+    }
+
+    /**
+     * 회원의 상태(변경 전 / 후)에 걸리는 항목을 지운다. 트랜잭션 안이면 완료 시점에 모아서 지운다.
+     */
+    void evictMember(MemberState... states) {
+        track(evictions -> evictions.addMembers(states));
+    }
+
+    /**
+     * 이 이름으로 거른 항목을 지운다. teamId 가 있으면(이름 변경) 팀 조건이 없으면서 그 팀 회원이 든 항목도 지운다.
+     */
+    void evictTeam(Long teamId, String... teamNames) {
+        track(evictions -> evictions.addTeam(teamId, teamNames));
+    }
+
+    /**
+     * 즉시 비우고, 트랜잭션 안이라면 완료 시점에 한번 더 비운다.
+     * (커밋 전에 다른 요청이 이전 값으로 다시 채워두는 경우 대비)
+     */
+    public void invalidateAll() {
+        removeAll();
+        track(Evictions::all);
+    }
+
+    public long size() {
+        return results.estimatedSize();
+    }
+
+    private void track(Consumer<Evictions> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Evictions evictions = new Evictions(maxTrackedChanges);
+            change.accept(evictions);
+            evict(evictions);
+            return;
+        }
+        change.accept(pendingEvictions());
+    }
+
+    private Evictions pendingEvictions() {
+        Object bound = TransactionSynchronizationManager.getResource(SYNCHRONIZATION_KEY);
+        if (bound != null) {
+            return (Evictions) bound;
+        }
+        Evictions pending = new Evictions(maxTrackedChanges);
+        TransactionSynchronizationManager.bindResource(SYNCHRONIZATION_KEY, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SYNCHRONIZATION_KEY);
+                evict(pending);
+            }
+        });
+        return pending;
+    }
+
+    private void evict(Evictions evictions) {
+        if (evictions.all) {
+            removeAll();
+            return;
+        }
+        Set<Key> stale = new HashSet<>();
+        for (String teamName : evictions.teamNames) {
+            stale.addAll(byTeamName.getOrDefault(teamName, Set.of()));
+        }
+        if (!evictions.teamIds.isEmpty()) {
+            results.asMap().forEach((key, value) -> {
+                if (key.condition.getTeamName() == null && rows(value).stream()
+                        .anyMatch(row -> evictions.teamIds.contains(row.getTeamId()))) {
+                    stale.add(key);
+                }
+            });
+        }
+        for (MemberState state : evictions.members) {
+            addMatches(stale, state, state.getUsername() != null
+                    ? byUsername.getOrDefault(state.getUsername(), Set.of()) : Set.of());
+            if (!state.isTeamKnown()) {
+                byTeamName.values().forEach(keys -> addMatches(stale, state, keys));
+            } else if (state.getTeamName() != null) {
+                addMatches(stale, state, byTeamName.getOrDefault(state.getTeamName(), Set.of()));
+            }
+            addMatches(stale, state, others);
+        }
+        for (Key key : stale) {
+            results.invalidate(key);
+            unindex(key);
+        }
+    }
+
+    private static void addMatches(Set<Key> stale, MemberState state, Set<Key> candidates) {
+        for (Key key : candidates) {
+            if (state.matches(key.condition)) {
+                stale.add(key);
+            }
+        }
+    }
+
+    private void removeAll() {
+        for (Key key : results.asMap().keySet()) {
+            results.invalidate(key);
+            unindex(key);
+        }
+    }
+
+    private void index(Key key) {
+        MemberSearchCondition condition = key.condition;
+        if (condition.getUsername() != null) {
+            byUsername.computeIfAbsent(condition.getUsername(), name -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        if (condition.getTeamName() != null) {
+            byTeamName.computeIfAbsent(condition.getTeamName(), name -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        if (condition.getUsername() == null && condition.getTeamName() == null) {
+            others.add(key);
+        }
+    }
+
+    private void unindex(Key key) {
+        MemberSearchCondition condition = key.condition;
+        if (condition.getUsername() != null) {
+            unindex(byUsername, condition.getUsername(), key);
+        }
+        if (condition.getTeamName() != null) {
+            unindex(byTeamName, condition.getTeamName(), key);
+        }
+        others.remove(key);
+    }
+
+    private static void unindex(Map<String, Set<Key>> index, String value, Key key) {
+        index.computeIfPresent(value, (name, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<MemberTeamDto> rows(Object value) {
+        return value instanceof Page<?> page ? (List<MemberTeamDto>) page.getContent() : (List<MemberTeamDto>) value;
+    }
+
+    private boolean isCacheable() {
+        // 쓰기 트랜잭션 안에서는 커밋되지 않은 데이터가 보이므로 캐시를 거치지 않는다.
+        return enabled && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * 한 트랜잭션 동안 모은 변경. 같은 상태 / 이름은 한 번만 본다.
+     */
+    private static final class Evictions {
+
+        private final int maxTrackedChanges;
+        private final Set<MemberState> members = new HashSet<>();
+        private final Set<String> teamNames = new HashSet<>();
+        private final Set<Long> teamIds = new HashSet<>();
+        private boolean all;
+
+        Evictions(int maxTrackedChanges) {
+            this.maxTrackedChanges = maxTrackedChanges;
+        }
+
+        void addMembers(MemberState... states) {
+            if (!all) {
+                members.addAll(Arrays.asList(states));
+                checkLimit();
+            }
+        }
+
+        void addTeam(Long teamId, String... names) {
+            if (all) {
+                return;
+            }
+            for (String name : names) {
+                if (name != null) {
+                    teamNames.add(name);
+                }
+            }
+            if (teamId != null) {
+                teamIds.add(teamId);
+            }
+            checkLimit();
+        }
+
+        void all() {
+            all = true;
+            members.clear();
+            teamNames.clear();
+            teamIds.clear();
+        }
+
+        private void checkLimit() {
+            if (members.size() + teamNames.size() > maxTrackedChanges) {
+                all();
+            }
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+
+        private final MemberSearchCondition condition;
+        // List 검색은 null
+        private final Pageable pageable;
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Team;
+
+/**
+ * 검색 조건과 비교할 회원 상태. 팀 프록시가 초기화되지 않았으면 팀 이름은 알 수 없는 것으로 보고 모든 팀 조건에 걸리게 한다.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+final class MemberState {
+
+    private final String username;
+    private final Integer age;
+    private final String teamName;
+    private final boolean teamKnown;
+
+    static MemberState of(String username, Integer age, Team team) {
+        if (team == null) {
+            return new MemberState(username, age, null, true);
+        }
+        boolean teamKnown = Hibernate.isInitialized(team);
+        return new MemberState(username, age, teamKnown ? team.getName() : null, teamKnown);
+    }
+
+    boolean matches(MemberSearchCondition condition) {
+        return (condition.getUsername() == null || condition.getUsername().equals(username))
+                && (condition.getTeamName() == null || !teamKnown || condition.getTeamName().equals(teamName))
+                && (condition.getAgeGoe() == null || (age != null && age >= condition.getAgeGoe()))
+                && (condition.getAgeLoe() == null || (age != null && age <= condition.getAgeLoe()));
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 하이버네이트 2차 캐시 설정 (member.second-level-cache.*)
+ * region 이름은 엔티티의 @Cache(region = ...) 와 맞춘다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.second-level-cache")
+public class SecondLevelCacheProperties {
+
+    private boolean enabled = false;
+
+    private Map<String, Region> regions = new LinkedHashMap<>(Map.of(
+            "team", new Region(1_000, Duration.ofHours(1)),
+            "team.members", new Region(1_000, Duration.ofMinutes(10)),
+            "member", new Region(100_000, Duration.ofMinutes(10))));
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        private long maxSize;
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        public Region(long maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+    }
+}
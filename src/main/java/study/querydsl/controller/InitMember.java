@@ -1,14 +1,11 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.dataset.DatasetGenerator;
+import study.querydsl.dataset.DatasetProperties;
 
 @Profile("local")
 @Component
@@ -23,22 +20,15 @@ public class InitMember {
     }
 
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
 
-        @PersistenceContext
-        private EntityManager em;
+        private final DatasetGenerator datasetGenerator;
+        private final DatasetProperties datasetProperties;
 
-        @Transactional
+        // 규모는 member.dataset.* 설정으로 조절한다. (기본: 팀 2, 회원 100)
         public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for(int i=0; i<100; i++){
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member"+i, i,selectedTeam));
-            }
+            datasetGenerator.generate(datasetProperties);
         }
     }
 
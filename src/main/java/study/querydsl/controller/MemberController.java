@@ -2,37 +2,115 @@ package study.querydsl.controller;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberCursorSort;
+import study.querydsl.dto.MemberExportFormat;
+import study.querydsl.dto.MemberImportResult;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.monitoring.StatementBudget;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberExportService;
+import study.querydsl.service.MemberImportService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_SIZE = 1000;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberImportService memberImportService;
 
     @GetMapping("/v1/members")
+    @StatementBudget(1)
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
     @GetMapping("/v2/members")
+    @StatementBudget(2)
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
     @GetMapping("/v3/members")
+    @StatementBudget(3) // 깊은 페이지는 deferred join (id 페이징 + 조회) + count
     public Page<MemberTeamDto> searchMemberVe(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    /**
+     * total 을 보여주지 않는 클라이언트(무한 스크롤)용 응답 모드. 예) /v2/members?mode=slice&page=3&size=20
+     * count 쿼리 없이 hasNext 만 준다.
+     */
+    @GetMapping(value = {"/v2/members", "/v3/members"}, params = "mode=slice")
+    @StatementBudget(1)
+    public Slice<MemberTeamDto> searchMemberSlice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    @GetMapping("/v4/members")
+    @StatementBudget(1)
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           @RequestParam(defaultValue = "ID") MemberCursorSort sort) {
+        return memberRepository.searchByCursor(condition, sort, cursor, Math.min(size, MAX_CURSOR_SIZE));
+    }
+
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition,
+                                                               @RequestParam(defaultValue = "NDJSON") MemberExportFormat format) {
+        StreamingResponseBody body = out -> memberExportService.export(condition, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + format.getExtension())
+                .body(body);
+    }
+
+    // 중간에 멈추면 422 와 함께 커밋된 건수, 다시 보낼 줄(failedLine)을 준다.
+    @PostMapping(value = "/members/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<MemberImportResult> importMembers(InputStream body) throws IOException {
+        MemberImportResult result = memberImportService.importNdjson(body);
+        return ResponseEntity.status(result.isCompleted() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleIllegalArgument(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    // 리포지토리 프록시는 IllegalArgumentException 을 InvalidDataAccessApiUsageException 으로 감싼다. (잘못된 커서, 너무 큰 offset)
+    @ExceptionHandler(InvalidDataAccessApiUsageException.class)
+    public ResponseEntity<String> handleInvalidUsage(InvalidDataAccessApiUsageException e) {
+        if (e.getCause() instanceof IllegalArgumentException cause) {
+            return ResponseEntity.badRequest().body(cause.getMessage());
+        }
+        throw e;
+    }
+
 }
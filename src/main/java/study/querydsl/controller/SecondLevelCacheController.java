@@ -0,0 +1,58 @@
+package study.querydsl.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cache.SecondLevelCacheProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 region 별 hit / miss 통계
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.second-level-cache", name = "enabled", havingValue = "true")
+public class SecondLevelCacheController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SecondLevelCacheProperties properties;
+
+    @GetMapping("/admin/second-level-cache")
+    public Map<String, Map<String, Long>> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        result.put("total", counts(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                -1));
+        for (String region : properties.getRegions().keySet()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            if (regionStatistics != null) {
+                result.put(region, counts(regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(),
+                        regionStatistics.getPutCount(),
+                        regionStatistics.getElementCountInMemory()));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> counts(long hit, long miss, long put, long size) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("hit", hit);
+        counts.put("miss", miss);
+        counts.put("put", put);
+        if (size >= 0) {
+            counts.put("size", size);
+        }
+        return counts;
+    }
+}
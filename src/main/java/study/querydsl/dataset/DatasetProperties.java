@@ -0,0 +1,41 @@
+package study.querydsl.dataset;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 샘플 데이터 생성 설정 (member.dataset.*)
+ * 기본값은 기존 InitMember 와 같은 규모(팀 2, 회원 100)이다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.dataset")
+public class DatasetProperties {
+
+    private long memberCount = 100;
+    private int teamCount = 2;
+
+    // 팀 크기 분포의 Zipf 지수. 0 이면 균등, 클수록 앞쪽 팀에 회원이 몰린다.
+    private double teamSkew = 0.0;
+
+    private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+    private int ageMin = 0;
+    private int ageMax = 99;
+    private double ageMean = 35;
+    private double ageStddev = 12;
+
+    // 서로 다른 username 개수. 0 이면 모두 유일(member0, member1 ...)
+    private long usernameCardinality = 0;
+
+    // 같은 seed 면 항상 같은 데이터가 만들어진다.
+    private long seed = 42L;
+
+    private int rowsPerStatement = 100; // multi-row insert 한 문장에 담을 row 수
+    private int statementsPerBatch = 10; // JDBC batch 하나에 담을 문장 수
+    private long commitInterval = 100_000;
+
+    public enum AgeDistribution {
+        UNIFORM, NORMAL
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 나머지는 primary 로 보낸다.
+ *
+ * 트랜잭션의 readOnly 여부는 트랜잭션 시작 후에야 알 수 있으므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 statement 시점에 커넥션을 얻게 해야 한다.
+ * replica 는 round robin 으로 고르고, 뒤처졌거나 연결이 안 되는 replica 는 건너뛴다. 남는 replica 가 없으면 primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<String> replicaNames;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaNames = new ArrayList<>(replicas.keySet());
+        this.lagMonitor = lagMonitor;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        if (meterRegistry != null) {
+            for (Object route : targets.keySet()) {
+                routeCounters.put((String) route, Counter.builder("member.datasource.route")
+                        .description("connections handed out per datasource route")
+                        .tag("route", (String) route)
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicaNames.isEmpty()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicaNames.size());
+        for (int i = 0; i < replicaNames.size(); i++) {
+            String name = replicaNames.get((start + i) % replicaNames.size());
+            if (lagMonitor.isAvailable(name)) {
+                return name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String route = (String) determineCurrentLookupKey();
+        try {
+            Connection connection = getResolvedDataSources().get(route).getConnection();
+            count(route);
+            return connection;
+        } catch (SQLException e) {
+            if (PRIMARY.equals(route)) {
+                throw e;
+            }
+            log.warn("failed to get a connection from replica {}, falling back to primary", route, e);
+            lagMonitor.markUnavailable(route);
+            Connection connection = primary.getConnection();
+            count(PRIMARY);
+            return connection;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // 계정을 지정하는 경우는 primary 만 지원한다.
+        return primary.getConnection(username, password);
+    }
+
+    public List<String> getReplicaNames() {
+        return replicaNames;
+    }
+
+    private void count(String route) {
+        Counter counter = routeCounters.get(route);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        lagMonitor.close();
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
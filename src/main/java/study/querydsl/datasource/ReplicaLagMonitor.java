@@ -0,0 +1,117 @@
+package study.querydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * replica 별 복제 지연을 주기적으로 확인한다.
+ * 확인 전이거나, 연결이 안 되거나, 지연이 maxLag 을 넘은 replica 는 사용할 수 없는 것으로 본다.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    // 마지막으로 확인된 지연. 없으면 사용할 수 없는 replica
+    private final Map<String, Duration> lags = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, Duration maxLag) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * 첫 확인 전까지는 모든 읽기가 primary 로 간다. (기동 중 replica 장애로 시작이 늦어지지 않도록 비동기로 확인)
+     */
+    public void start(Duration interval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void refresh() {
+        replicas.forEach((name, dataSource) -> {
+            try {
+                Duration lag = probe(dataSource);
+                if (lag.compareTo(maxLag) > 0 && isAvailable(name)) {
+                    log.warn("replica {} is lagging {}ms behind, routing reads to primary", name, lag.toMillis());
+                }
+                lags.put(name, lag);
+            } catch (SQLException | RuntimeException e) {
+                if (lags.remove(name) != null) {
+                    log.warn("replica {} is unavailable, routing reads to primary", name, e);
+                }
+            }
+        });
+    }
+
+    public boolean isAvailable(String name) {
+        Duration lag = lags.get(name);
+        return lag != null && lag.compareTo(maxLag) <= 0;
+    }
+
+    /**
+     * 커넥션 획득에 실패한 replica 는 다음 확인 때까지 뺀다.
+     */
+    public void markUnavailable(String name) {
+        lags.remove(name);
+    }
+
+    /**
+     * replica 별 마지막 지연(초). 사용할 수 없는 replica 는 NaN
+     */
+    public double lagSeconds(String name) {
+        Duration lag = lags.get(name);
+        return lag != null ? lag.toMillis() / 1000.0 : Double.NaN;
+    }
+
+    public Map<String, Duration> getLags() {
+        return Collections.unmodifiableMap(lags);
+    }
+
+    private Duration probe(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                if (!connection.isValid(1)) {
+                    throw new SQLException("connection is not valid");
+                }
+                return Duration.ZERO;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    return Duration.ZERO;
+                }
+                double seconds = rs.getDouble(1);
+                // null 이면 아직 재생할 트랜잭션이 없는 것 (= 지연 없음)
+                return rs.wasNull() ? Duration.ZERO : Duration.ofMillis((long) (seconds * 1000));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
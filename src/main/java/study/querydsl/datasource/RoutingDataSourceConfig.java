@@ -0,0 +1,120 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 읽기 / 쓰기 datasource 라우팅 (member.datasource.routing.enabled=true 일 때만)
+ * DataSource 빈을 직접 만들기 때문에 부트의 기본 DataSource 자동 설정은 빠진다.
+ * primary / replica 는 각자의 hikari 풀을 갖고, 풀 이름(primary, replica 이름)으로 hikaricp_* 지표가 나간다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "member.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    // 트랜잭션이 끝나면 커넥션을 돌려준다. 다음 트랜잭션은 첫 statement 에서 route 를 다시 고른다.
+    static final PhysicalConnectionHandlingMode CONNECTION_HANDLING =
+            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 RoutingDataSourceProperties properties,
+                                 ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (RoutingDataSourceProperties.Replica replica : properties.getReplicas()) {
+            Assert.hasText(replica.getName(), "replica name must not be empty");
+            Assert.isTrue(!replicas.containsKey(replica.getName()) && !ReadWriteRoutingDataSource.PRIMARY.equals(replica.getName()),
+                    "duplicate datasource name: " + replica.getName());
+            replicas.put(replica.getName(), replicaPool(replica, dataSourceProperties, meterRegistry));
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replicas, properties.getLagQuery(), properties.getMaxReplicaLag());
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, lagMonitor, meterRegistry);
+        if (meterRegistry != null) {
+            for (String name : replicas.keySet()) {
+                Gauge.builder("member.datasource.replica.lag", lagMonitor, monitor -> monitor.lagSeconds(name))
+                        .description("last measured replication lag, NaN while the replica is unavailable")
+                        .baseUnit("seconds")
+                        .tag("replica", name)
+                        .register(meterRegistry);
+            }
+        }
+        lagMonitor.start(properties.getLagCheckInterval());
+
+        return new RoutingDataSourceProxy(routing);
+    }
+
+    /**
+     * 스프링 기본값(DELAYED_ACQUISITION_AND_HOLD)은 세션이 닫힐 때까지 커넥션을 잡고 있다.
+     * open-in-view 로 요청 내내 열려 있는 EntityManager 는 첫 트랜잭션의 route 를 끝까지 쓰게 되므로
+     * 읽기 전용 조회 뒤의 쓰기가 replica 커넥션으로 나간다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING, CONNECTION_HANDLING);
+    }
+
+    private static HikariDataSource replicaPool(RoutingDataSourceProperties.Replica replica,
+                                                DataSourceProperties dataSourceProperties,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(replica.getName());
+        pool.setJdbcUrl(replica.getUrl());
+        pool.setUsername(replica.getUsername());
+        pool.setPassword(replica.getPassword());
+        pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        pool.setReadOnly(true);
+        // replica 가 내려가 있어도 애플리케이션은 떠야 한다. (lag monitor 가 살아나면 다시 넣는다)
+        pool.setInitializationFailTimeout(-1);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+
+    /**
+     * 빈이 내려갈 때 풀과 lag monitor 를 닫기 위해 close() 를 노출한다. (destroyMethod 추론)
+     */
+    static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        private final ReadWriteRoutingDataSource routing;
+
+        RoutingDataSourceProxy(ReadWriteRoutingDataSource routing) {
+            super(routing);
+            this.routing = routing;
+        }
+
+        public ReadWriteRoutingDataSource getRouting() {
+            return routing;
+        }
+
+        @Override
+        public void close() throws Exception {
+            routing.close();
+        }
+    }
+}
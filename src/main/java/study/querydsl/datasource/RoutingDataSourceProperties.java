@@ -0,0 +1,44 @@
+package study.querydsl.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 / 쓰기 datasource 라우팅 설정 (member.datasource.routing.*)
+ * primary 는 spring.datasource.* 를 그대로 쓴다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    // true 면 @Transactional(readOnly = true) 를 replica 로 보낸다.
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // 이보다 뒤처진 replica 는 lag 이 줄어들 때까지 빼고 primary 로 보낸다.
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    // replica 에서 실행할 지연(초) 조회 쿼리. 비어 있으면 연결 가능 여부만 본다.
+    // ex) PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp())
+    private String lagQuery;
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class MemberCursorPage {
+
+    private final List<MemberTeamDto> content;
+    private final String nextCursor; // 다음 페이지 요청 시 그대로 넘겨주는 값 (마지막 페이지면 null)
+    private final boolean hasNext;
+
+    public MemberCursorPage(List<MemberTeamDto> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.dto;
+
+/**
+ * 커서 기반 조회 시 정렬 키
+ * 모든 정렬은 member.id 를 tiebreaker 로 사용한다.
+ */
+public enum MemberCursorSort {
+    ID,
+    AGE
+}
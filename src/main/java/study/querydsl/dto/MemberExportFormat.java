@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+@Getter
+public enum MemberExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    MemberExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
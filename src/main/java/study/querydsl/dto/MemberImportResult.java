@@ -0,0 +1,34 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * chunk 마다 커밋하므로 중간에 멈춰도 앞부분은 저장되어 있다.
+ * failedLine 이 있으면 그 앞 줄까지 모두 커밋된 것이고, 고친 뒤 failedLine 부터 다시 보내면 이어서 적재된다.
+ */
+@Getter
+@ToString
+public class MemberImportResult {
+
+    private final long imported;
+    private final int teamsCreated;
+    private final int chunks;
+    private final long elapsedMillis;
+    private final Long failedLine; // 끝까지 적재했으면 null
+    private final String error;
+
+    public MemberImportResult(long imported, int teamsCreated, int chunks, long elapsedMillis,
+                              Long failedLine, String error) {
+        this.imported = imported;
+        this.teamsCreated = teamsCreated;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.failedLine = failedLine;
+        this.error = error;
+    }
+
+    public boolean isCompleted() {
+        return failedLine == null;
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class MemberImportRow {
+
+    private String username;
+    private int age;
+    private String teamName; // 없으면 팀 없이 저장
+}
@@ -0,0 +1,44 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * 회원 배치 작업의 id 범위. 재시작할 때 같은 범위로 다시 나누기 위해 처음 시작할 때 값을 남겨 둔다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BatchJob {
+
+    @Id
+    private String name;
+    private long minId;
+    private long maxId;
+    private int rangeSize;
+    private Instant startedAt;
+    private Instant completedAt;
+
+    public BatchJob(String name, long minId, long maxId, int rangeSize) {
+        this.name = name;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.rangeSize = rangeSize;
+        this.startedAt = Instant.now();
+    }
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+
+    public void complete() {
+        this.completedAt = Instant.now();
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * 끝난 chunk (checkpoint). chunk 처리와 같은 트랜잭션에서 저장하므로, 있으면 그 chunk 의 변경도 커밋된 것이다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_batch_job_chunk", columnNames = {"job_name", "range_start"}))
+public class BatchJobChunk {
+
+    @Id @GeneratedValue
+    private Long id;
+    @Column(name = "job_name")
+    private String jobName;
+    @Column(name = "range_start")
+    private long rangeStart;
+    private long rangeEnd;
+    private int rowCount;
+    private long elapsedMillis;
+    private Instant completedAt;
+
+    public BatchJobChunk(String jobName, long rangeStart, long rangeEnd, int rowCount, long elapsedMillis) {
+        this.jobName = jobName;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.rowCount = rowCount;
+        this.elapsedMillis = elapsedMillis;
+        this.completedAt = Instant.now();
+    }
+}
@@ -2,11 +2,28 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+import study.querydsl.cache.MemberSearchCacheListener;
+import study.querydsl.search.MemberSearchIndexListener;
+
+import java.time.Instant;
 
 @Entity
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id", "username", "age"})
+@EntityListeners({MemberSearchCacheListener.class, MemberSearchIndexListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+// MemberSearchShape 조합별 : username(+age), teamName(+age) -> team_id(+age), age 만
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_modified_at", columnList = "modified_at")
+})
 public class Member {
 
     @Id @GeneratedValue
@@ -19,6 +36,11 @@ public class Member {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // insert / update 시각. 검색 인덱스 스냅샷 이후 바뀐 회원만 다시 읽을 때 쓴다. (JDBC 로 직접 넣은 row 는 null)
+    @UpdateTimestamp
+    @Column(name = "modified_at")
+    private Instant modifiedAt;
+
     public Member(String username, int age, Team team){
         this.username = username;
         this.age = age;
@@ -1,10 +1,18 @@
 package study.querydsl.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.querydsl.cache.MemberSearchCacheListener;
+import study.querydsl.search.MemberSearchIndexListener;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +21,10 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id","name"})
+@EntityListeners({MemberSearchCacheListener.class, MemberSearchIndexListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 public class Team {
 
     @Id @GeneratedValue
@@ -20,6 +32,7 @@ public class Team {
     private String name;
 
     @OneToMany(mappedBy = "team")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team.members")
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
@@ -0,0 +1,39 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link IndexAdvisor} 결과
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class IndexAdvice {
+
+    // 실행된 적 있는 shape 만, 실행 횟수 내림차순
+    private final List<ShapePlan> shapes;
+    // 인덱스 이름 -> 컬럼 (member, team 테이블의 primary key 제외)
+    private final Map<String, List<String>> indexes;
+    // 어떤 shape 의 실행 계획에도 쓰이지 않은 인덱스
+    private final List<String> unusedIndexes;
+    // 테이블 스캔하는 shape 를 위한 create index 문
+    private final List<String> missingIndexes;
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class ShapePlan {
+
+        private final String shape;
+        private final long executions;
+        private final String sql;
+        private final String plan; // explain 을 못 했으면 null
+        private final List<String> indexesUsed;
+        private final List<String> tableScans;
+    }
+}
@@ -0,0 +1,205 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberPredicates;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static study.querydsl.repository.support.MemberSearchShape.AGE_GOE;
+import static study.querydsl.repository.support.MemberSearchShape.AGE_LOE;
+import static study.querydsl.repository.support.MemberSearchShape.TEAM_NAME;
+import static study.querydsl.repository.support.MemberSearchShape.USERNAME;
+
+/**
+ * 실행된 검색 조건 조합({@link SearchShapeStats})마다 같은 모양의 SQL 을 H2 EXPLAIN 으로 확인해서
+ * 테이블 스캔하는 shape 에는 인덱스를 제안하고, 어떤 shape 에도 쓰이지 않는 인덱스를 골라낸다.
+ * H2 실행 계획 형식에 맞춰져 있다. (/actuator/indexadvisor)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisor {
+
+    // "PUBLIC"."MEMBER" "M" /* PUBLIC.IDX_MEMBER_USERNAME_AGE: USERNAME = 'member1' */
+    // "PUBLIC"."MEMBER" "M" /* PUBLIC.MEMBER.tableScan */
+    private static final Pattern TABLE_ACCESS = Pattern.compile(
+            "\"?PUBLIC\"?\\.\"?(\\w+)\"?\\s+\"?\\w+\"?\\s*/\\*\\s*PUBLIC\\.(\\w+)(\\.tableScan)?");
+
+    private static final String INDEX_COLUMNS = """
+            select i.index_name, i.table_name, c.column_name
+            from information_schema.indexes i
+            join information_schema.index_columns c
+              on c.index_schema = i.index_schema and c.index_name = i.index_name
+            where i.table_schema = 'PUBLIC'
+              and i.table_name in ('MEMBER', 'TEAM')
+              and i.index_type_name <> 'PRIMARY KEY'
+            order by i.index_name, c.ordinal_position
+            """;
+
+    private final DataSource dataSource;
+    private final SearchShapeStats shapeStats;
+
+    public IndexAdvice advise() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Map<String, String> indexTables = new HashMap<>();
+        Map<String, List<String>> indexes = indexes(jdbcTemplate, indexTables);
+
+        List<IndexAdvice.ShapePlan> shapes = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            long executions = shapeStats.executions(shape);
+            MemberSearchCondition sample = shapeStats.sample(shape);
+            if (executions == 0 || sample == null) {
+                continue;
+            }
+            String sql = sql(shape, sample);
+            String plan = explain(jdbcTemplate, sql);
+
+            List<String> indexesUsed = new ArrayList<>();
+            List<String> tableScans = new ArrayList<>();
+            if (plan != null) {
+                Matcher matcher = TABLE_ACCESS.matcher(plan);
+                while (matcher.find()) {
+                    if (matcher.group(3) != null) {
+                        tableScans.add(matcher.group(1));
+                    } else {
+                        indexesUsed.add(matcher.group(2));
+                    }
+                }
+            }
+            used.addAll(indexesUsed);
+
+            for (String table : tableScans) {
+                List<String> columns = recommendedColumns(shape, table);
+                // 인덱스가 있는데도 스캔했다면 옵티마이저 판단(작은 테이블 등)이므로 제안하지 않는다.
+                if (!columns.isEmpty() && !hasIndex(indexes, indexTables, table, columns)) {
+                    missing.add(createIndex(table, columns));
+                }
+            }
+            shapes.add(new IndexAdvice.ShapePlan(MemberSearchShape.name(shape), executions, sql, plan, indexesUsed, tableScans));
+        }
+        shapes.sort(Comparator.comparingLong(IndexAdvice.ShapePlan::getExecutions).reversed());
+
+        // 실행된 shape 가 없으면 판단할 근거가 없다.
+        List<String> unused = shapes.isEmpty() ? List.of() : indexes.keySet().stream()
+                .filter(name -> !used.contains(name))
+                .filter(name -> !isConstraintIndex(name))
+                .toList();
+
+        return new IndexAdvice(shapes, indexes, unused, new ArrayList<>(missing));
+    }
+
+    /**
+     * MemberSearchShape 의 JPQL 과 같은 조인 / 조건을 가진 SQL. 값은 마지막으로 실행된 조건을 쓴다.
+     */
+    static String sql(int shape, MemberSearchCondition sample) {
+        StringBuilder sql = new StringBuilder(
+                "select m.member_id, m.username, m.age, t.id, t.name from member m left join team t on t.id = m.team_id");
+        List<String> where = new ArrayList<>();
+        if ((shape & USERNAME) != 0) {
+            where.add("m.username = " + literal(MemberPredicates.text(sample.getUsername())));
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            where.add("t.name = " + literal(MemberPredicates.text(sample.getTeamName())));
+        }
+        if ((shape & (AGE_GOE | AGE_LOE)) == (AGE_GOE | AGE_LOE)) {
+            where.add(MemberPredicates.isAgeEq(sample.getAgeGoe(), sample.getAgeLoe())
+                    ? "m.age = " + sample.getAgeGoe()
+                    : "m.age between " + sample.getAgeGoe() + " and " + sample.getAgeLoe());
+        } else if ((shape & AGE_GOE) != 0) {
+            where.add("m.age >= " + sample.getAgeGoe());
+        } else if ((shape & AGE_LOE) != 0) {
+            where.add("m.age <= " + sample.getAgeLoe());
+        }
+        if (!where.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", where));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 등호 조건 컬럼을 앞에, 범위 조건(age)을 뒤에 둔다.
+     */
+    static List<String> recommendedColumns(int shape, String table) {
+        boolean age = (shape & (AGE_GOE | AGE_LOE)) != 0;
+        List<String> columns = new ArrayList<>();
+        if ("MEMBER".equals(table)) {
+            if ((shape & USERNAME) != 0) {
+                columns.add("USERNAME");
+            } else if ((shape & TEAM_NAME) != 0) {
+                columns.add("TEAM_ID");
+            }
+            if (age) {
+                columns.add("AGE");
+            }
+        } else if ("TEAM".equals(table) && (shape & TEAM_NAME) != 0) {
+            columns.add("NAME");
+        }
+        return columns;
+    }
+
+    private static Map<String, List<String>> indexes(JdbcTemplate jdbcTemplate, Map<String, String> indexTables) {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try {
+            jdbcTemplate.query(INDEX_COLUMNS, rs -> {
+                String name = rs.getString(1);
+                indexTables.put(name, rs.getString(2));
+                indexes.computeIfAbsent(name, key -> new ArrayList<>()).add(rs.getString(3));
+            });
+        } catch (DataAccessException e) {
+            log.debug("failed to read index metadata", e);
+        }
+        return indexes;
+    }
+
+    private static boolean hasIndex(Map<String, List<String>> indexes, Map<String, String> indexTables,
+                                    String table, List<String> columns) {
+        return indexes.entrySet().stream()
+                .filter(index -> table.equals(indexTables.get(index.getKey())))
+                .anyMatch(index -> index.getValue().size() >= columns.size()
+                        && index.getValue().subList(0, columns.size()).equals(columns));
+    }
+
+    // 외래키 / 제약조건용으로 H2 가 만든 인덱스는 지울 수 없으므로 unused 에서 뺀다.
+    private static boolean isConstraintIndex(String name) {
+        return name.startsWith("FK") || name.startsWith("CONSTRAINT");
+    }
+
+    private static String createIndex(String table, List<String> columns) {
+        String name = "idx_" + table + "_" + String.join("_", columns);
+        return ("create index " + name + " on " + table + "(" + String.join(", ", columns) + ")").toLowerCase(Locale.ROOT);
+    }
+
+    private static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        try {
+            List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+            return String.join("\n", lines).trim();
+        } catch (DataAccessException e) {
+            log.debug("explain failed: {}", sql, e);
+            return null;
+        }
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
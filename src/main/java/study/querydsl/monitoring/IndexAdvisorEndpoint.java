@@ -0,0 +1,30 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/indexadvisor
+ */
+@Component
+@Endpoint(id = "indexadvisor")
+@RequiredArgsConstructor
+public class IndexAdvisorEndpoint {
+
+    private final IndexAdvisor indexAdvisor;
+    private final SearchShapeStats shapeStats;
+
+    @ReadOperation
+    public IndexAdvice advise() {
+        return indexAdvisor.advise();
+    }
+
+    // 기록된 shape 를 비운다.
+    @DeleteOperation
+    public void reset() {
+        shapeStats.reset();
+    }
+}
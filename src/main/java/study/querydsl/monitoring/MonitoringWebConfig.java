@@ -0,0 +1,26 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.jdbc.statement-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MonitoringWebConfig implements WebMvcConfigurer {
+
+    private final StatementBudgetProperties statementBudgetProperties;
+
+    @Bean
+    StatementBudgetInterceptor statementBudgetInterceptor() {
+        return new StatementBudgetInterceptor(statementBudgetProperties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementBudgetInterceptor());
+    }
+}
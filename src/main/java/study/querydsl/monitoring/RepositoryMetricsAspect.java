@@ -0,0 +1,112 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 리포지토리 메서드별 실행 시간 / 결과 건수
+ * MemberSearchCondition 을 받는 메서드는 어떤 조건이 채워졌는지(shape)를 태그로 붙이고 {@link SearchShapeStats} 에 기록한다.
+ *
+ * - member.repository.query        (timer, percentile histogram)
+ * - member.repository.result.size  (distribution summary)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private static final String NO_CONDITION = "-";
+
+    private final MeterRegistry meterRegistry;
+    private final SearchShapeStats shapeStats;
+
+    @Around("(within(study.querydsl.repository.MemberRepositoryImpl)"
+            + " || within(study.querydsl.repository.MemberJpaRepository)"
+            + " || within(study.querydsl.repository.support.Querydsl4RepositorySupport+))"
+            + " && execution(public * *(..))"
+            + " && !execution(* setEntityManager(..)) && !execution(* setParallelCountExecutor(..))"
+            + " && !execution(* validate())")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        MemberSearchCondition condition = condition(joinPoint.getArgs());
+        if (condition != null) {
+            shapeStats.record(condition);
+        }
+        Tags tags = Tags.of(
+                "repository", AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName(),
+                "method", joinPoint.getSignature().getName(),
+                "shape", condition != null ? MemberSearchShape.name(MemberSearchShape.of(condition)) : NO_CONDITION);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            recordResultSize(tags, result);
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("member.repository.query")
+                    .description("repository method latency")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void recordResultSize(Tags tags, Object result) {
+        long size = resultSize(result);
+        if (size < 0) {
+            return;
+        }
+        DistributionSummary.builder("member.repository.result.size")
+                .description("rows returned by repository method")
+                .baseUnit("rows")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    private static MemberSearchCondition condition(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return condition;
+            }
+        }
+        return null;
+    }
+
+    // 건수를 알 수 없는 결과(Stream, 단건 값 등)는 -1
+    private static long resultSize(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof MemberCursorPage page) {
+            return page.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.monitoring;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 실제로 실행된 검색 조건 조합(shape)별 실행 횟수와 마지막 조건 값
+ * {@link IndexAdvisor} 가 이 값으로 실행 계획을 확인한다.
+ */
+@Component
+public class SearchShapeStats {
+
+    private final AtomicLongArray executions = new AtomicLongArray(MemberSearchShape.SHAPE_COUNT);
+    // EXPLAIN 에 쓸 실제 값
+    private final AtomicReferenceArray<MemberSearchCondition> samples = new AtomicReferenceArray<>(MemberSearchShape.SHAPE_COUNT);
+
+    public void record(MemberSearchCondition condition) {
+        int shape = MemberSearchShape.of(condition);
+        executions.incrementAndGet(shape);
+        samples.set(shape, condition.normalized());
+    }
+
+    public long executions(int shape) {
+        return executions.get(shape);
+    }
+
+    public MemberSearchCondition sample(int shape) {
+        return samples.get(shape);
+    }
+
+    public void reset() {
+        for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            executions.set(shape, 0);
+            samples.set(shape, null);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Getter
+@ToString
+public class SlowQuery {
+
+    private final Instant executedAt;
+    private final long elapsedMillis;
+    private final String sql;
+    private final String sqlWithValues;
+    private final String plan; // explain 을 못 했으면 null
+
+    public SlowQuery(Instant executedAt, long elapsedMillis, String sql, String sqlWithValues, String plan) {
+        this.executedAt = executedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.sql = sql;
+        this.sqlWithValues = sqlWithValues;
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * threshold 보다 오래 걸린 statement 를 {@link SlowQueryLog} 에 남긴다.
+ * select 문은 같은 커넥션에서 H2 EXPLAIN ANALYZE 를 실행해 실제 실행 계획(table scan 여부 등)도 같이 남긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "member.jdbc.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryListener extends JdbcEventListener {
+
+    private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*(/\\*.*?\\*/\\s*)*", Pattern.DOTALL);
+    // EXPLAIN 자체가 다시 느린 쿼리로 잡히지 않도록
+    private static final ThreadLocal<Boolean> EXPLAINING = ThreadLocal.withInitial(() -> false);
+
+    private final SlowQueryProperties properties;
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdNanos;
+
+    public SlowQueryListener(SlowQueryProperties properties, SlowQueryLog slowQueryLog) {
+        this.properties = properties;
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdNanos = properties.getThreshold().toNanos();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos < thresholdNanos || EXPLAINING.get()) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        String sqlWithValues = statementInformation.getSqlWithValues();
+        String plan = properties.isExplain() && isSelect(sql)
+                ? explain(statementInformation.getConnectionInformation().getConnection(), sqlWithValues)
+                : null;
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+        slowQueryLog.add(new SlowQuery(Instant.now(), elapsedMillis, sql, sqlWithValues, plan));
+        log.warn("slow query {}ms: {}", elapsedMillis, sqlWithValues);
+    }
+
+    private String explain(Connection connection, String sqlWithValues) {
+        EXPLAINING.set(true);
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN ANALYZE " + sqlWithValues)) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString().trim();
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("explain failed: {}", sqlWithValues, ex);
+            return null;
+        } finally {
+            EXPLAINING.set(false);
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String body = LEADING_COMMENT.matcher(sql).replaceFirst("");
+        return body.toLowerCase(Locale.ROOT).startsWith("select");
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 최근 느린 쿼리를 capacity 건까지만 보관하는 링 버퍼
+ */
+@Component
+public class SlowQueryLog {
+
+    private final int capacity;
+    private final Deque<SlowQuery> queries;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this.capacity = Math.max(1, properties.getCapacity());
+        this.queries = new ArrayDeque<>(capacity);
+    }
+
+    public synchronized void add(SlowQuery query) {
+        if (queries.size() == capacity) {
+            queries.removeFirst();
+        }
+        queries.addLast(query);
+    }
+
+    // 최신순
+    public synchronized List<SlowQuery> snapshot() {
+        List<SlowQuery> snapshot = new ArrayList<>(queries.size());
+        queries.descendingIterator().forEachRemaining(snapshot::add);
+        return snapshot;
+    }
+
+    public synchronized void clear() {
+        queries.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 느린 쿼리 기록 설정 (member.jdbc.slow-query.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.jdbc.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+    private Duration threshold = Duration.ofMillis(200);
+
+    // 최근 몇 건까지 보관할지 (오래된 것부터 버린다)
+    private int capacity = 100;
+
+    // select 문이면 EXPLAIN ANALYZE 로 실행 계획을 같이 남긴다. (쿼리를 한번 더 실행한다)
+    private boolean explain = true;
+}
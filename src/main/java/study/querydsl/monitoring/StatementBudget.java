@@ -0,0 +1,17 @@
+package study.querydsl.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드(또는 클래스) 한 번 호출에 허용하는 SQL 실행 수
+ * 지정하지 않으면 member.jdbc.statement-budget.default-budget 을 따른다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    int value();
+}
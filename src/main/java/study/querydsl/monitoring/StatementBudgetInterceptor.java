@@ -0,0 +1,110 @@
+package study.querydsl.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.Map;
+
+/**
+ * 컨트롤러 호출 한 번 동안 실행된 SQL 을 세서 N+1 과 budget 초과를 잡는다.
+ *
+ * {@code @ResponseBody} 핸들러는 postHandle 전에 응답이 이미 써지고 커밋되므로,
+ * {@link StatementBudgetResponseAdvice} 가 본문을 쓰기 직전에 {@link #verify(HttpServletRequest)} 를 부른다.
+ * postHandle 은 본문이 없는 핸들러(뷰 등)만 검사한다.
+ *
+ * 비동기 요청(StreamingResponseBody 등)의 첫 dispatch 는 postHandle / afterCompletion 없이 끝나므로
+ * afterConcurrentHandlingStarted 에서 기록을 닫는다. 안 닫으면 워커 스레드의 ThreadLocal 에 남는다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String RECORDING = StatementBudgetInterceptor.class.getName() + ".RECORDING";
+    private static final String HANDLER = StatementBudgetInterceptor.class.getName() + ".HANDLER";
+
+    private final StatementBudgetProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(HANDLER, handler);
+            request.setAttribute(RECORDING, StatementRecorder.start());
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        verify(request);
+    }
+
+    /**
+     * 기록을 끝내고 검사한다. FAIL 모드에서 위반이면 {@link StatementBudgetExceededException} (500)
+     * 한 요청에서 처음 한 번만 검사하고 이후 호출은 무시한다.
+     */
+    public void verify(HttpServletRequest request) {
+        StatementRecorder.Recording recording = (StatementRecorder.Recording) request.getAttribute(RECORDING);
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        request.removeAttribute(RECORDING);
+        verify(request, (HandlerMethod) request.getAttribute(HANDLER), recording);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // 핸들러에서 예외가 나서 postHandle 이 호출되지 않은 경우
+        close(request);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 본문은 다른 스레드에서 쓰므로 이 스레드의 기록은 검사 없이 닫는다. (async dispatch 에서 다시 시작한다)
+        close(request);
+    }
+
+    private static void close(HttpServletRequest request) {
+        StatementRecorder.Recording recording = (StatementRecorder.Recording) request.getAttribute(RECORDING);
+        if (recording != null) {
+            recording.close();
+            request.removeAttribute(RECORDING);
+        }
+    }
+
+    private void verify(HttpServletRequest request, HandlerMethod handler, StatementRecorder.Recording recording) {
+        StringBuilder violations = new StringBuilder();
+
+        int budget = budget(handler);
+        if (budget > 0 && recording.getStatementCount() > budget) {
+            violations.append(String.format("statement budget exceeded: %d > %d. ", recording.getStatementCount(), budget));
+        }
+        Map<String, Integer> repeated = recording.getRepeatedShapes(properties.getRepeatThreshold());
+        if (!repeated.isEmpty()) {
+            violations.append("possible N+1: ").append(repeated);
+        }
+        if (violations.length() == 0) {
+            return;
+        }
+
+        String message = request.getMethod() + " " + request.getRequestURI() + " -> " + violations;
+        if (properties.getMode() == StatementBudgetProperties.Mode.FAIL) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private int budget(HandlerMethod handler) {
+        StatementBudget budget = handler.getMethodAnnotation(StatementBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), StatementBudget.class);
+        }
+        return budget != null ? budget.value() : properties.getDefaultBudget();
+    }
+}
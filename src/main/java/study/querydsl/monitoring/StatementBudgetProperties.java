@@ -0,0 +1,29 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 요청 단위 SQL 실행 수 검사 설정 (member.jdbc.statement-budget.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.jdbc.statement-budget")
+public class StatementBudgetProperties {
+
+    private boolean enabled = true;
+
+    // WARN: 로그만 남긴다 (운영), FAIL: 예외를 던진다 (테스트)
+    private Mode mode = Mode.WARN;
+
+    // 0 이하면 @StatementBudget 이 없는 요청은 개수를 검사하지 않는다.
+    private int defaultBudget = 0;
+
+    // 같은 shape 가 이 횟수 이상 반복되면 N+1 로 본다.
+    private int repeatThreshold = 3;
+
+    public enum Mode {
+        WARN, FAIL
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 응답 본문을 쓰기 직전에 statement budget 을 검사한다.
+ * 여기서 던진 예외는 아직 커밋되지 않은 응답에 그대로 반영된다. (FAIL 모드에서 500)
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "member.jdbc.statement-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementBudgetResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final StatementBudgetInterceptor interceptor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            interceptor.verify(servletRequest.getServletRequest());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 가 실행한 모든 statement 를 {@link StatementRecorder} 에 넘긴다.
+ * JdbcEventListener 빈은 p6spy-spring-boot-starter 가 자동으로 등록한다.
+ */
+@Component
+public class StatementCountListener extends JdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (StatementRecorder.isRecording()) {
+            StatementRecorder.record(statementInformation.getSql());
+        }
+    }
+}
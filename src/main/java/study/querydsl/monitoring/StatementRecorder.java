@@ -0,0 +1,99 @@
+package study.querydsl.monitoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 현재 스레드에서 실행된 SQL 을 모양(shape)별로 센다.
+ * p6spy 리스너({@link StatementCountListener})가 채우고, 요청 / 테스트 단위로 {@link #start()} ~ close 사이를 기록한다.
+ *
+ * 하이버네이트는 값을 바인딩 파라미터(?)로 보내므로 SQL 문자열 자체가 shape 이다.
+ * 같은 shape 가 값만 바뀌어 여러 번 실행되면 N+1 을 의심할 수 있다.
+ */
+public final class StatementRecorder {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private StatementRecorder() {
+    }
+
+    /**
+     * 중첩해서 시작할 수 있고, 안쪽 기록은 바깥 기록에도 합산된다.
+     */
+    public static Recording start() {
+        Recording recording = new Recording(CURRENT.get());
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public static boolean isRecording() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording == null || sql == null) {
+            return;
+        }
+        String shape = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        for (Recording r = recording; r != null; r = r.parent) {
+            r.add(shape);
+        }
+    }
+
+    public static class Recording implements AutoCloseable {
+
+        private final Recording parent;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private int statementCount;
+        private boolean closed;
+
+        private Recording(Recording parent) {
+            this.parent = parent;
+        }
+
+        private void add(String shape) {
+            statementCount++;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        public Map<String, Integer> getShapes() {
+            return Collections.unmodifiableMap(shapes);
+        }
+
+        /**
+         * threshold 번 이상 반복된 shape (N+1 후보)
+         */
+        public Map<String, Integer> getRepeatedShapes(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.forEach((shape, count) -> {
+                if (count >= threshold) {
+                    repeated.put(shape, count);
+                }
+            });
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.util.Arrays;
+
+/**
+ * Projections.constructor / bean / fields 와 같은 사용법이지만 row 마다 리플렉션을 쓰지 않는다.
+ * 매퍼는 (DTO, 방식, 인자) 별로 처음 한 번만 만든다. ({@link ProjectionMappers})
+ *
+ * <pre>
+ * queryFactory.select(GeneratedProjections.fields(UserDto.class, member.username.as("name"), member.age))
+ * </pre>
+ */
+public final class GeneratedProjections {
+
+    private GeneratedProjections() {
+    }
+
+    public static <T> MappedProjection<T> constructor(Class<T> type, Expression<?>... exprs) {
+        Class<?>[] argTypes = Arrays.stream(exprs).map(Expression::getType).toArray(Class<?>[]::new);
+        return new MappedProjection<>(type, Arrays.asList(exprs), ProjectionMappers.constructor(type, argTypes));
+    }
+
+    /**
+     * setter 로 채운다. 프로퍼티 이름은 path 이름이나 as(...) 별칭
+     */
+    public static <T> MappedProjection<T> bean(Class<T> type, Expression<?>... exprs) {
+        return new MappedProjection<>(type, Arrays.asList(exprs), ProjectionMappers.bean(type, names(exprs)));
+    }
+
+    /**
+     * 필드에 직접 넣는다. 필드 이름은 path 이름이나 as(...) 별칭
+     */
+    public static <T> MappedProjection<T> fields(Class<T> type, Expression<?>... exprs) {
+        return new MappedProjection<>(type, Arrays.asList(exprs), ProjectionMappers.fields(type, names(exprs)));
+    }
+
+    private static String[] names(Expression<?>[] exprs) {
+        return Arrays.stream(exprs).map(GeneratedProjections::name).toArray(String[]::new);
+    }
+
+    private static String name(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return ((Path<?>) operation.getArg(1)).getMetadata().getName();
+        }
+        throw new IllegalArgumentException("expression needs a path or an alias: " + expr);
+    }
+}
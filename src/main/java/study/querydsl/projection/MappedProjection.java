@@ -0,0 +1,48 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+
+/**
+ * 미리 만들어 둔 {@link ProjectionMapper} 로 row 를 DTO 로 바꾸는 Querydsl select 식. ({@link GeneratedProjections})
+ */
+public class MappedProjection<T> extends FactoryExpressionBase<T> {
+
+    private final List<Expression<?>> args;
+    private final ProjectionMapper<T> mapper;
+
+    public MappedProjection(Class<? extends T> type, List<Expression<?>> args, ProjectionMapper<T> mapper) {
+        super(type);
+        this.args = List.copyOf(args);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... row) {
+        return mapper.map(row);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        return obj instanceof MappedProjection<?> other
+                && getType().equals(other.getType())
+                && args.equals(other.args)
+                && mapper == other.mapper;
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.projection;
+
+/**
+ * 조회 결과 한 row(select 절 순서의 값)를 DTO 로 바꾼다. 스레드 안전하고 DTO 타입별로 하나를 재사용한다.
+ */
+@FunctionalInterface
+public interface ProjectionMapper<T> {
+
+    T map(Object[] row);
+}
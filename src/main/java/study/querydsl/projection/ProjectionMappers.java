@@ -0,0 +1,305 @@
+package study.querydsl.projection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * DTO 매퍼를 (타입, 방식, 인자) 별로 한 번만 만들어 재사용한다.
+ *
+ * Projections.bean / fields / constructor 는 row 마다 Method.invoke / Field.set / Constructor.newInstance 를 부른다.
+ * 여기서는 처음 한 번만 리플렉션으로 대상을 찾고, 이후에는
+ * - 생성자: 인자 배열을 펼치는 MethodHandle
+ * - 기본 생성자, setter: LambdaMetafactory 로 만든 Supplier / BiConsumer (일반 람다와 같아서 JIT 이 인라인한다)
+ * - 필드: 필드 setter MethodHandle
+ * 을 호출한다. primitive 자리에 null 이 오면 생성자는 기본값을 넣고, setter / 필드는 건너뛴다. (Querydsl 과 같다)
+ */
+public final class ProjectionMappers {
+
+    private static final Map<String, ProjectionMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    private ProjectionMappers() {
+    }
+
+    /**
+     * argTypes 에 맞는 생성자로 만든다. (int 자리에 Integer 처럼 박싱된 타입도 맞는 것으로 본다)
+     */
+    public static <T> ProjectionMapper<T> constructor(Class<T> type, Class<?>... argTypes) {
+        return cached(type, "constructor", Arrays.stream(argTypes).map(Class::getName).collect(Collectors.joining(",")),
+                () -> newConstructorMapper(type, argTypes));
+    }
+
+    /**
+     * 기본 생성자로 만들고 properties 순서대로 setter 를 부른다.
+     */
+    public static <T> ProjectionMapper<T> bean(Class<T> type, String... properties) {
+        return cached(type, "bean", String.join(",", properties), () -> newBeanMapper(type, properties));
+    }
+
+    /**
+     * 기본 생성자로 만들고 fields 순서대로 필드에 직접 넣는다.
+     */
+    public static <T> ProjectionMapper<T> fields(Class<T> type, String... fields) {
+        return cached(type, "fields", String.join(",", fields), () -> newFieldMapper(type, fields));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ProjectionMapper<T> cached(Class<T> type, String strategy, String args,
+                                                  Supplier<ProjectionMapper<T>> factory) {
+        return (ProjectionMapper<T>) MAPPERS.computeIfAbsent(type.getName() + "#" + strategy + "(" + args + ")",
+                key -> factory.get());
+    }
+
+    private static <T> ProjectionMapper<T> newConstructorMapper(Class<T> type, Class<?>[] argTypes) {
+        Constructor<?> constructor = findConstructor(type, argTypes);
+        try {
+            MethodHandle handle = lookup(type).unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, argTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new ConstructorMapper<>(handle, defaults(constructor.getParameterTypes()));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("cannot access constructor of " + type.getName(), e);
+        }
+    }
+
+    private static <T> ProjectionMapper<T> newBeanMapper(Class<T> type, String[] properties) {
+        MethodHandles.Lookup lookup = lookup(type);
+        BiConsumer<Object, Object>[] setters = newSetterArray(properties.length);
+        boolean[] primitive = new boolean[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            Method setter = findSetter(type, properties[i]);
+            setters[i] = setterLambda(lookup, type, setter);
+            primitive[i] = setter.getParameterTypes()[0].isPrimitive();
+        }
+        return new BeanMapper<>(factoryLambda(lookup, type), setters, primitive);
+    }
+
+    private static <T> ProjectionMapper<T> newFieldMapper(Class<T> type, String[] fields) {
+        MethodHandles.Lookup lookup = lookup(type);
+        MethodHandle[] setters = new MethodHandle[fields.length];
+        boolean[] primitive = new boolean[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Field field = findField(type, fields[i]);
+            try {
+                setters[i] = lookup.unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("cannot set field " + type.getName() + "." + fields[i], e);
+            }
+            primitive[i] = field.getType().isPrimitive();
+        }
+        return new FieldMapper<>(factoryLambda(lookup, type), setters, primitive);
+    }
+
+    private static final class ConstructorMapper<T> implements ProjectionMapper<T> {
+
+        private final MethodHandle constructor;
+        // primitive 파라미터 자리의 기본값. 나머지는 null
+        private final Object[] defaults;
+
+        ConstructorMapper(MethodHandle constructor, Object[] defaults) {
+            this.constructor = constructor;
+            this.defaults = defaults;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T map(Object[] row) {
+            // row 는 호출한 쪽 배열이므로 기본값을 채울 때만 복사한다.
+            Object[] args = row;
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null && defaults[i] != null) {
+                    if (args == row) {
+                        args = row.clone();
+                    }
+                    args[i] = defaults[i];
+                }
+            }
+            try {
+                return (T) (Object) constructor.invokeExact(args);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+    }
+
+    private static final class BeanMapper<T> implements ProjectionMapper<T> {
+
+        private final Supplier<Object> factory;
+        private final BiConsumer<Object, Object>[] setters;
+        private final boolean[] primitive;
+
+        BeanMapper(Supplier<Object> factory, BiConsumer<Object, Object>[] setters, boolean[] primitive) {
+            this.factory = factory;
+            this.setters = setters;
+            this.primitive = primitive;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T map(Object[] row) {
+            Object bean = factory.get();
+            for (int i = 0; i < setters.length; i++) {
+                if (row[i] != null || !primitive[i]) {
+                    setters[i].accept(bean, row[i]);
+                }
+            }
+            return (T) bean;
+        }
+    }
+
+    private static final class FieldMapper<T> implements ProjectionMapper<T> {
+
+        private final Supplier<Object> factory;
+        private final MethodHandle[] setters;
+        private final boolean[] primitive;
+
+        FieldMapper(Supplier<Object> factory, MethodHandle[] setters, boolean[] primitive) {
+            this.factory = factory;
+            this.setters = setters;
+            this.primitive = primitive;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T map(Object[] row) {
+            Object bean = factory.get();
+            try {
+                for (int i = 0; i < setters.length; i++) {
+                    if (row[i] != null || !primitive[i]) {
+                        setters[i].invokeExact(bean, row[i]);
+                    }
+                }
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return (T) bean;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> factoryLambda(MethodHandles.Lookup lookup, Class<?> type) {
+        try {
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invoke();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " has no default constructor", e);
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("cannot create factory for " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterLambda(MethodHandles.Lookup lookup, Class<?> type, Method setter) {
+        try {
+            // 인자 타입을 wrapper 로 두면 람다가 Object -> Integer 캐스트 후 int 로 unboxing 한다.
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    lookup.unreflect(setter),
+                    MethodType.methodType(void.class, type, wrap(setter.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("cannot bind setter " + type.getName() + "." + setter.getName(), e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("cannot access " + type.getName(), e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, Class<?>[] argTypes) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameters = constructor.getParameterTypes();
+            if (parameters.length != argTypes.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameters.length && matches; i++) {
+                matches = wrap(parameters[i]).isAssignableFrom(wrap(argTypes[i]));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new IllegalArgumentException("no constructor of " + type.getName() + " accepts " + Arrays.toString(argTypes));
+    }
+
+    private static Method findSetter(Class<?> type, String property) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == 1
+                        && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            }
+        }
+        throw new IllegalArgumentException("no setter for " + type.getName() + "." + property);
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException e) {
+                // 상위 클래스에서 찾는다.
+            }
+        }
+        throw new IllegalArgumentException("no field " + type.getName() + "." + name);
+    }
+
+    private static Object[] defaults(Class<?>[] parameterTypes) {
+        Object[] defaults = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isPrimitive()) {
+                defaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+            }
+        }
+        return defaults;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object>[] newSetterArray(int length) {
+        return (BiConsumer<Object, Object>[]) new BiConsumer[length];
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+}
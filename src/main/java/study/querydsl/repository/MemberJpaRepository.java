@@ -1,23 +1,32 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchResultCache;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.BulkResult;
+import study.querydsl.repository.support.ChunkedBulkExecutor;
+import study.querydsl.repository.support.MemberPredicates;
+import study.querydsl.search.MemberSearchIndex;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
@@ -27,6 +36,10 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final MemberSearchResultCache resultCache;
+    private final MemberSearchIndex searchIndex;
+    private final ChunkedBulkExecutor bulkExecutor;
 
     // 생성자 예시1
    /* public MemberJpaRepository(EntityManager em) {
@@ -73,22 +86,62 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
-    public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+    public long bulkAgePlus(int age) {
+        long count = queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .set(member.modifiedAt, Instant.now())
+                .where(member.age.goe(age))
+                .execute();
+        // 벌크 연산은 엔티티 리스너를 거치지 않으므로 직접 무효화
+        countCache.invalidateAll();
+        resultCache.invalidateAll();
+        searchIndex.invalidate();
+        return count;
+    }
 
-        BooleanBuilder builder = new BooleanBuilder();
-        if (hasText(condition.getUsername())) {
-            builder.and(member.username.eq(condition.getUsername()));
-        }
-        if(hasText(condition.getTeamName())){
-            builder.and(team.name.eq(condition.getTeamName()));
+    /**
+     * 조건에 맞는 회원을 id 순서의 chunk 로 나눠 chunk 마다 커밋하며 수정한다. 트랜잭션 밖에서 호출해야 한다.
+     * 영속성 컨텍스트 / 캐시 / 검색 인덱스는 알아서 맞춰 준다.
+     */
+    public BulkResult bulkUpdate(Predicate where, UnaryOperator<JPAUpdateClause> set) {
+        try {
+            return bulkExecutor.update(member, member.id, where,
+                    clause -> set.apply(clause).set(member.modifiedAt, Instant.now()), this::afterBulkChunk);
+        } finally {
+            searchIndex.invalidate();
         }
-        if(condition.getAgeGoe() != null){
-            builder.and(member.age.goe(condition.getAgeGoe()));
+    }
+
+    public BulkResult bulkDelete(Predicate where) {
+        try {
+            return bulkExecutor.delete(member, member.id, where, this::afterBulkChunk);
+        } finally {
+            searchIndex.invalidate();
         }
-       if(condition.getAgeLoe() != null){
-            builder.and(member.age.goe(condition.getAgeLoe()));
+    }
+
+    public BulkResult bulkAgePlusInChunks(int age) {
+        return bulkUpdate(member.age.goe(age), clause -> clause.set(member.age, member.age.add(1)));
+    }
+
+    // 검색 인덱스는 chunk 마다 다시 적재하지 않고 끝난 뒤에 한 번만 무효화한다.
+    private void afterBulkChunk() {
+        countCache.invalidateAll();
+        resultCache.invalidateAll();
+    }
+
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return List.of();
         }
 
+        BooleanBuilder builder = new BooleanBuilder();
+        builder.and(MemberPredicates.usernameEq(condition.getUsername()));
+        builder.and(MemberPredicates.teamNameEq(condition.getTeamName()));
+        builder.and(MemberPredicates.ageBetween(condition.getAgeGoe(), condition.getAgeLoe()));
+
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -104,9 +157,15 @@ public class MemberJpaRepository {
     }
 
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition){
-        System.out.println("TEST!!!!!!!!!!!!!!!!!!!!");
-        return queryFactory
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return List.of();
+        }
+        if (searchIndex.isUsable()) {
+            return searchIndex.search(condition.normalized());
+        }
+        return resultCache.getList(condition, () -> queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -115,29 +174,7 @@ public class MemberJpaRepository {
                         team.name.as("teadmName")))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-
-                )
-                .fetch();
-    }
-
-    private BooleanExpression usernameEq(String usernameCond) {
-        return hasText(usernameCond) ? member.username.eq(usernameCond) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+                .where(MemberPredicates.where(condition))
+                .fetch());
     }
 }
@@ -1,16 +1,15 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.MemberPredicates;
 
 import java.util.List;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
@@ -24,7 +23,9 @@ public class MemberQueryRepository {
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        System.out.println("TEST!!!!!!!!!!!!!!!!!!!!");
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return List.of();
+        }
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -34,29 +35,7 @@ public class MemberQueryRepository {
                         team.name.as("teadmName")))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-
-                )
+                .where(MemberPredicates.where(condition))
                 .fetch();
     }
-
-    private BooleanExpression usernameEq(String usernameCond) {
-        return hasText(usernameCond) ? member.username.eq(usernameCond) : null;
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
 }
@@ -2,10 +2,14 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
@@ -13,5 +17,18 @@ public interface MemberRepositoryCustom {
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
 
+    // total 이 필요 없는 무한 스크롤용. size + 1 건으로 다음 페이지 여부만 판단하고 count 쿼리는 없다.
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    // offset 대신 커서(member.id)로 seek 하므로 페이지가 깊어져도 비용이 같다.
+    MemberCursorPage searchByCursor(MemberSearchCondition condition, String cursor, int size);
+    MemberCursorPage searchByCursor(MemberSearchCondition condition, MemberCursorSort sort, String cursor, int size);
+
+    // 전체를 메모리에 올리지 않고 fetchSize 단위로 읽는다. 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+    Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize);
+
+    // age 이상인 회원의 나이를 1 증가 (벌크 연산)
+    long bulkAgePlus(int age);
+
 
 }
@@ -1,92 +1,118 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchResultCache;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
-
+import study.querydsl.repository.support.DeferredJoin;
+import study.querydsl.repository.support.MemberCountEstimator;
+import study.querydsl.repository.support.MemberCursor;
+import study.querydsl.repository.support.MemberPredicates;
+import study.querydsl.repository.support.MemberSearchShape;
+import study.querydsl.repository.support.MemberSortOrder;
+import study.querydsl.repository.support.PaginationProperties;
+import study.querydsl.repository.support.ParallelCountExecutor;
+import study.querydsl.search.MemberSearchIndex;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+/**
+ * 검색 메서드는 읽기 전용 트랜잭션으로 실행한다. (member.datasource.routing 이 켜져 있으면 replica 로 간다)
+ */
 public class MemberRepositoryImpl  implements MemberRepositoryCustom {
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, MemberCountCache countCache, MemberSearchResultCache resultCache,
+                                ParallelCountExecutor parallelCountExecutor, MemberCountEstimator countEstimator,
+                                PaginationProperties paginationProperties, MemberSearchIndex searchIndex) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.parallelCountExecutor = parallelCountExecutor;
+        this.countEstimator = countEstimator;
+        this.paginationProperties = paginationProperties;
+        this.searchIndex = searchIndex;
     }
 
 
+   private final EntityManager em;
    private final JPAQueryFactory queryFactory;
+   private final MemberCountCache countCache;
+   private final MemberSearchResultCache resultCache;
+   private final ParallelCountExecutor parallelCountExecutor;
+   private final MemberCountEstimator countEstimator;
+   private final PaginationProperties paginationProperties;
+   private final MemberSearchIndex searchIndex;
 //
 //    public MemberRepositoryImpl(EntityManager em) {
 //        this.queryFactory = new JPAQueryFactory(em);
 //    }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-
-
-
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teadmId"),
-                        team.name.as("teadmName")))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-
-                )
-                .fetch();
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return List.of();
+        }
+        if (searchIndex.isUsable()) {
+            return searchIndex.search(condition.normalized());
+        }
+        int shape = MemberSearchShape.of(condition);
+        return resultCache.getList(condition, () ->
+                MemberSearchShape.bind(em.createQuery(MemberSearchShape.contentJpql(shape, condition), MemberTeamDto.class), shape, condition)
+                        .getResultList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
+        Page<MemberTeamDto> indexed = searchIndex.isUsable() ? searchIndex.search(condition.normalized(), pageable) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        return resultCache.getPage(condition, pageable, () -> fetchPageSimple(condition, pageable));
+    }
 
+    private Page<MemberTeamDto> fetchPageSimple(MemberSearchCondition condition, Pageable pageable) {
 
+        // fetchResults() 는 매번 count 쿼리를 같이 날리므로 content 만 조회하고 count 는 캐시를 거친다.
+        int shape = MemberSearchShape.of(condition);
+        List<MemberTeamDto> content = fetchContent(shape, condition, pageable);
 
-
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teadmId"),
-                        team.name.as("teadmName")))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
+        if (useEstimate(condition)) {
+            return countEstimator.getPage(content, pageable, condition,
+                    () -> countCache.getOrCount(condition, () -> fetchCount(shape, condition)));
+        }
+        long total = countCache.getOrCount(condition, () -> fetchCount(shape, condition));
 
         return new PageImpl<>(content, pageable, total);
 
@@ -120,26 +146,34 @@ public class MemberRepositoryImpl  implements MemberRepositoryCustom {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teadmId"),
-                        team.name.as("teadmName")))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
+        Page<MemberTeamDto> indexed = searchIndex.isUsable() ? searchIndex.search(condition.normalized(), pageable) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        return resultCache.getPage(condition, pageable, () -> fetchPageComplex(condition, pageable));
+    }
 
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+    private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        int shape = MemberSearchShape.of(condition);
+
+        // 추정은 메모리 통계만 보므로 count 를 동시에 실행할 필요가 없다.
+        if (useEstimate(condition)) {
+            return countEstimator.getPage(fetchComplexContent(shape, condition, pageable), pageable, condition,
+                    () -> countCache.getOrCount(condition, () -> fetchCount(shape, condition)));
+        }
+
+        // count 가 이미 캐시돼 있으면 동시에 실행할 이유가 없다.
+        if (parallelCountExecutor.isEnabled() && countCache.getIfPresent(condition) == null) {
+            return parallelCountExecutor.getPage(() -> fetchComplexContent(shape, condition, pageable), pageable,
+                    () -> countCache.getOrCount(condition, () -> fetchCount(shape, condition)));
+        }
+
+        List<MemberTeamDto> content = fetchComplexContent(shape, condition, pageable);
 
     /*    long total = queryFactory
                 .select(member)
@@ -155,36 +189,167 @@ public class MemberRepositoryImpl  implements MemberRepositoryCustom {
                 )
                 .fetchCount();*/
 
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrCount(condition, () -> fetchCount(shape, condition)));
+       // return new PageImpl<>(content, pageable, total);
+    }
 
-        long totalCount = countQuery.fetchCount();
+    /**
+     * offset 이 크면 deferred join: 조건에 맞는 id 만 먼저 페이징하고(인덱스만 읽는다), 넓은 row 는 그 id 로만 읽는다.
+     * offset 으로 버려지는 row 의 team 조인과 컬럼을 DB 가 끌고 다니지 않는다. 두 방식 모두 같은 정렬(MemberSortOrder)이라 페이지가 이어진다.
+     */
+    private List<MemberTeamDto> fetchComplexContent(int shape, MemberSearchCondition condition, Pageable pageable) {
+        if (pageable.getOffset() < paginationProperties.getDeferredJoinMinOffset()) {
+            return fetchContent(shape, condition, pageable);
+        }
+        MemberSortOrder order = MemberSortOrder.orDefault(pageable.getSort());
+        List<Long> ids = MemberSearchShape.bind(em.createQuery(MemberSearchShape.idJpql(shape, condition, order), Long.class), shape, condition)
+                .setFirstResult(firstResult(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<MemberTeamDto> rows = em.createQuery(MemberSearchShape.hydrateJpql(), MemberTeamDto.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        return DeferredJoin.restoreOrder(ids, rows, MemberTeamDto::getMemberId);
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount());
-       // return new PageImpl<>(content, pageable, total);
+    // 정확한 count 가 이미 캐시돼 있으면 추정할 필요가 없다.
+    private boolean useEstimate(MemberSearchCondition condition) {
+        return countEstimator.isEnabled() && countCache.getIfPresent(condition) == null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        Page<MemberTeamDto> indexed = searchIndex.isUsable() ? searchIndex.search(condition.normalized(), pageable) : null;
+        if (indexed != null) {
+            return new SliceImpl<>(indexed.getContent(), pageable, indexed.hasNext());
+        }
+        // 다음 페이지 존재 여부를 알기 위해 size + 1 건을 조회한다. (count 쿼리 없음)
+        List<MemberTeamDto> rows = fetchContent(MemberSearchShape.of(condition), condition,
+                MemberSortOrder.orDefault(pageable.getSort()), pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private List<MemberTeamDto> fetchContent(int shape, MemberSearchCondition condition, Pageable pageable) {
+        return fetchContent(shape, condition, MemberSortOrder.orDefault(pageable.getSort()),
+                pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private List<MemberTeamDto> fetchContent(int shape, MemberSearchCondition condition, MemberSortOrder order,
+                                             long offset, int limit) {
+        return MemberSearchShape.bind(em.createQuery(MemberSearchShape.contentJpql(shape, condition, order), MemberTeamDto.class), shape, condition)
+                .setFirstResult(firstResult(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * JPA 의 firstResult 는 int 라서, 넘치는 offset 을 잘라 엉뚱한 페이지를 돌려주지 않고 400 으로 거절한다.
+     */
+    private static int firstResult(long offset) {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("offset 이 너무 큽니다: " + offset);
+        }
+        return (int) offset;
+    }
+
+    private long fetchCount(int shape, MemberSearchCondition condition) {
+        return MemberSearchShape.bind(em.createQuery(MemberSearchShape.countJpql(shape, condition), Long.class), shape, condition)
+                .getSingleResult();
+    }
+
+    @Override
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Stream.empty();
+        }
+        int shape = MemberSearchShape.of(condition);
+        // 하이버네이트는 getResultStream 을 ScrollableResults(forward only)로 처리한다.
+        return MemberSearchShape.bind(em.createQuery(MemberSearchShape.contentJpql(shape, condition), MemberTeamDto.class), shape, condition)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public long bulkAgePlus(int age) {
+        long count = queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .set(member.modifiedAt, Instant.now())
+                .where(member.age.goe(age))
+                .execute();
+        // 벌크 연산은 엔티티 리스너를 거치지 않으므로 직접 무효화
+        countCache.invalidateAll();
+        resultCache.invalidateAll();
+        searchIndex.invalidate();
+        return count;
     }
 
-    private BooleanExpression usernameEq(String usernameCond) {
-        return hasText(usernameCond) ? member.username.eq(usernameCond) : null;
+    @Override
+    @Transactional(readOnly = true)
+    public MemberCursorPage searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        return searchByCursor(condition, MemberCursorSort.ID, cursor, size);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    @Override
+    @Transactional(readOnly = true)
+    public MemberCursorPage searchByCursor(MemberSearchCondition condition, MemberCursorSort sort, String cursor, int size) {
+        Assert.isTrue(size > 0, "size must be greater than zero");
+        MemberCursor after = MemberCursor.decode(cursor, sort);
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return new MemberCursorPage(List.of(), null, false);
+        }
+
+        // 다음 페이지 존재 여부를 알기 위해 size + 1 건을 조회한다. (count 쿼리 없음)
+        List<MemberTeamDto> rows = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        MemberPredicates.where(condition),
+                        seekAfter(after)
+                )
+                .orderBy(cursorOrder(sort))
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = rows.size() > size;
+        List<MemberTeamDto> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? MemberCursor.after(sort, content.get(content.size() - 1)).encode() : null;
+
+        return new MemberCursorPage(content, nextCursor, hasNext);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    private BooleanExpression seekAfter(MemberCursor after) {
+        if (after == null) {
+            return null;
+        }
+        if (after.getSort() == MemberCursorSort.AGE) {
+            // (age, id) > (:age, :id)
+            return member.age.gt(after.getAge())
+                    .or(member.age.eq(after.getAge()).and(member.id.gt(after.getId())));
+        }
+        return member.id.gt(after.getId());
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    private OrderSpecifier<?>[] cursorOrder(MemberCursorSort sort) {
+        if (sort == MemberCursorSort.AGE) {
+            return new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        }
+        return new OrderSpecifier<?>[]{member.id.asc()};
     }
 }
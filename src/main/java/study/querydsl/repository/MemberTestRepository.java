@@ -1,23 +1,27 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.MemberCountEstimator;
+import study.querydsl.repository.support.MemberPredicates;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 import java.util.List;
-import static org.springframework.util.StringUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
-    public MemberTestRepository() {
+    private final MemberCountEstimator countEstimator;
+    public MemberTestRepository(MemberCountEstimator countEstimator) {
         super(Member.class);
+        this.countEstimator = countEstimator;
     }
     public List<Member> basicSelect() {
         return select(member)
@@ -31,12 +35,12 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     }
 
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition,  Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
         JPAQuery<Member> query = selectFrom(member)
                 .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()));
+                .where(MemberPredicates.where(condition));
         List<Member> content = getQuerydsl().applyPagination(pageable, query)
                 .fetch();
         return PageableExecutionUtils.getPage(content, pageable,
@@ -45,44 +49,77 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 
     public Page<Member> applyPagination(MemberSearchCondition condition,
                                         Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
         return applyPagination(pageable, contentQuery -> contentQuery
                 .selectFrom(member)
                 .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())));
+                .where(MemberPredicates.where(condition)));
     }
 
     public Page<Member> applyPagination2(MemberSearchCondition condition,
                                          Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
         return applyPagination(pageable, contentQuery -> contentQuery
                         .selectFrom(member)
                         .leftJoin(member.team, team)
-                        .where(usernameEq(condition.getUsername()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())),
+                        .where(MemberPredicates.where(condition)),
                 countQuery -> countQuery
                         .selectFrom(member)
                         .leftJoin(member.team, team)
-                        .where(usernameEq(condition.getUsername()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe()))
+                        .where(MemberPredicates.where(condition))
         );
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
-    }
-    private BooleanExpression teamNameEq(String teamName) {
-        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    public Page<Member> applyPaginationApproximate(MemberSearchCondition condition,
+                                                   Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
+        return applyPagination(pageable, contentQuery -> contentQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(MemberPredicates.where(condition)),
+                countQuery -> countQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(MemberPredicates.where(condition)),
+                () -> countEstimator.estimate(condition),
+                countEstimator
+        );
     }
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
+
+    public Page<Member> applyDeferredPagination(MemberSearchCondition condition, Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return Page.empty(pageable);
+        }
+        return applyDeferredPagination(pageable,
+                idQuery -> idQuery
+                        .select(member.id)
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(MemberPredicates.where(condition)),
+                (contentQuery, ids) -> contentQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team).fetchJoin()
+                        .where(member.id.in(ids)),
+                Member::getId,
+                countQuery -> countQuery
+                        .selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(MemberPredicates.where(condition)));
     }
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+
+    public Slice<Member> applySlicing(MemberSearchCondition condition, Pageable pageable) {
+        if (MemberPredicates.isUnsatisfiable(condition)) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        return applySlicing(pageable, contentQuery -> contentQuery
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(MemberPredicates.where(condition)));
     }
 }
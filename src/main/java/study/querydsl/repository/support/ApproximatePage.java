@@ -0,0 +1,34 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * total 이 count 쿼리가 아니라 통계로 추정한 값인 Page.
+ * 실제 total 은 [totalLowerBound, totalUpperBound] 안에 있다. (통계를 모은 뒤의 변경은 반영되지 않는다)
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+
+    private final long totalLowerBound;
+    private final long totalUpperBound;
+
+    public ApproximatePage(List<T> content, Pageable pageable, long total, long totalLowerBound, long totalUpperBound) {
+        super(content, pageable, total);
+        this.totalLowerBound = totalLowerBound;
+        this.totalUpperBound = totalUpperBound;
+    }
+
+    public boolean isApproximate() {
+        return true;
+    }
+
+    public long getTotalLowerBound() {
+        return totalLowerBound;
+    }
+
+    public long getTotalUpperBound() {
+        return totalUpperBound;
+    }
+}
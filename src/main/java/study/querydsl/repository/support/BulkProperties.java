@@ -0,0 +1,22 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * chunk 단위 벌크 수정 / 삭제 설정 (member.bulk.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.bulk")
+public class BulkProperties {
+
+    // 한 트랜잭션에서 수정 / 삭제할 row 수. 클수록 빠르지만 lock 을 오래 잡는다.
+    private int chunkSize = 1000;
+
+    // chunk 사이에 쉬는 시간. 다른 트랜잭션이 lock 을 얻을 틈을 준다.
+    private Duration pause = Duration.ZERO;
+}
@@ -0,0 +1,19 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkResult {
+
+    private final long affected;
+    private final int chunks;
+    private final long elapsedMillis;
+
+    public BulkResult(long affected, int chunks, long elapsedMillis) {
+        this.affected = affected;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,154 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.EntityPathBase;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 벌크 update / delete 를 id 순서의 chunk 로 나눠 chunk 마다 커밋한다.
+ * 한 문장으로 전체를 바꾸면 끝날 때까지 lock 을 잡고 있으므로, 조건에 맞는 row 를 chunkSize 개씩 잘라
+ * (id 가 듬성듬성해도 chunk 크기가 일정하도록 경계 id 를 먼저 찾는다) 짧은 트랜잭션으로 처리한다.
+ *
+ * chunk 마다 커밋하므로 호출하는 쪽의 트랜잭션 안에서는 쓸 수 없다. (flush 되지 않은 변경과 lock 을 서로 기다리게 된다)
+ * 끝나면 현재 스레드에 묶인 영속성 컨텍스트(open-in-view)에서 해당 타입 엔티티를 detach 하고 2차 캐시를 비운다.
+ * 따라서 벌크 연산 뒤에 em.flush() / em.clear() 를 직접 부를 필요가 없다.
+ */
+@Slf4j
+@Component
+public class ChunkedBulkExecutor {
+
+    private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final BulkProperties properties;
+
+    public ChunkedBulkExecutor(EntityManager em, EntityManagerFactory entityManagerFactory,
+                               PlatformTransactionManager transactionManager, BulkProperties properties) {
+        this.em = em;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+    }
+
+    /**
+     * @param afterChunk chunk 가 커밋될 때마다 (캐시 무효화 등)
+     */
+    public BulkResult update(EntityPathBase<?> entity, NumberPath<Long> id, Predicate where,
+                             UnaryOperator<JPAUpdateClause> set, Runnable afterChunk) {
+        return execute("update", entity, id, where, afterChunk,
+                chunk -> set.apply(new JPAQueryFactory(em).update(entity)).where(chunk).execute());
+    }
+
+    public BulkResult delete(EntityPathBase<?> entity, NumberPath<Long> id, Predicate where, Runnable afterChunk) {
+        return execute("delete", entity, id, where, afterChunk,
+                chunk -> new JPAQueryFactory(em).delete(entity).where(chunk).execute());
+    }
+
+    private BulkResult execute(String operation, EntityPathBase<?> entity, NumberPath<Long> id, Predicate where,
+                               Runnable afterChunk, Function<Predicate, Long> statement) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "chunked bulk " + operation + " commits per chunk and must not run inside a transaction");
+        int chunkSize = properties.getChunkSize();
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than zero");
+
+        long start = System.nanoTime();
+        long affected = 0;
+        int chunks = 0;
+        Long lastId = null;
+        try {
+            while (true) {
+                long chunkStart = System.nanoTime();
+                Long from = lastId;
+                long[] result = chunkTransaction.execute(status -> {
+                    JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+                    Predicate remaining = ExpressionUtils.allOf(where, from == null ? null : id.gt(from));
+                    // 이번 chunk 의 마지막 id. 남은 row 가 chunkSize 보다 적으면 마지막 row 의 id
+                    Long upper = queryFactory.select(id).from(entity).where(remaining)
+                            .orderBy(id.asc()).offset(chunkSize - 1).fetchFirst();
+                    if (upper == null) {
+                        upper = queryFactory.select(id.max()).from(entity).where(remaining).fetchOne();
+                    }
+                    if (upper == null) {
+                        return null;
+                    }
+                    return new long[]{upper, statement.apply(ExpressionUtils.allOf(remaining, id.loe(upper)))};
+                });
+                if (result == null) {
+                    break;
+                }
+                lastId = result[0];
+                affected += result[1];
+                chunks++;
+                afterChunk.run();
+                log.debug("bulk {} chunk. entity={}, lastId={}, rows={}, elapsed={}ms", operation,
+                        entity.getType().getSimpleName(), lastId, result[1],
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunkStart));
+                pause();
+            }
+        } finally {
+            if (chunks > 0) {
+                synchronizePersistenceContext(entity.getType());
+            }
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("bulk {} done. entity={}, rows={}, chunks={}, elapsed={}ms",
+                operation, entity.getType().getSimpleName(), affected, chunks, elapsed);
+        return new BulkResult(affected, chunks, elapsed);
+    }
+
+    private void pause() {
+        if (properties.getPause().isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("bulk operation interrupted", e);
+        }
+    }
+
+    /**
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 이미 읽어 둔 엔티티는 DB 와 달라진다.
+     * 삭제된 row 는 refresh 할 수 없으니 detach 해서 다음 접근 때 다시 읽게 한다.
+     */
+    private void synchronizePersistenceContext(Class<?> type) {
+        entityManagerFactory.getCache().evict(type);
+        EntityManager bound = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (bound == null) {
+            return;
+        }
+        List<Object> stale = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : bound.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (type.isInstance(entry.getKey())) {
+                stale.add(entry.getKey());
+            }
+        }
+        stale.forEach(bound::detach);
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 추정한 total 과 실제 값이 들어 있는 범위 [lowerBound, upperBound]
+ */
+@Getter
+@ToString
+public class CountEstimate {
+
+    private final long estimate;
+    private final long lowerBound;
+    private final long upperBound;
+
+    public CountEstimate(long estimate, long lowerBound, long upperBound) {
+        this.estimate = estimate;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    public static CountEstimate of(long count) {
+        return new CountEstimate(count, count, count);
+    }
+
+    /**
+     * 전체 total 건 중 조건 A 를 만족하는 a 건, 조건 B 를 만족하는 b 건일 때 A and B 의 건수.
+     * 추정치는 두 조건이 독립이라고 보고 a * b / total, 범위는 Fréchet 부등식 max(0, a + b - total) ~ min(a, b)
+     */
+    public static CountEstimate conjunction(long a, long b, long total) {
+        if (total <= 0) {
+            return of(0);
+        }
+        long lower = Math.max(0, a + b - total);
+        long upper = Math.min(a, b);
+        long estimate = Math.round((double) a * b / total);
+        return new CountEstimate(Math.max(lower, Math.min(estimate, upper)), lower, upper);
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 추정한 total 을 언제 믿을지 정한다. 엔티티마다 통계가 다르므로 구현은 리포지토리가 골라서 넘긴다.
+ * ({@link MemberCountEstimator})
+ */
+public interface CountEstimatePolicy {
+
+    boolean isEnabled();
+
+    /**
+     * estimate 를 쓰거나, 믿을 수 없으면 exactCount 로 센 total 로 Page 를 만든다.
+     */
+    <T> Page<T> getPage(List<T> content, Pageable pageable, Supplier<CountEstimate> estimate, LongSupplier exactCount);
+}
@@ -0,0 +1,36 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * deferred join 페이징 도우미
+ * 1. 페이지에 해당하는 id 만 정렬 / offset / limit 으로 조회한다. (인덱스만 읽고, 버려지는 row 의 컬럼을 끌고 다니지 않는다)
+ * 2. 넓은 row 는 id in (...) 으로 그 페이지 만큼만 읽는다. in 조회는 순서를 보장하지 않으므로 1 의 순서로 되돌린다.
+ */
+public final class DeferredJoin {
+
+    private DeferredJoin() {
+    }
+
+    /**
+     * rows 를 ids 순서로 정렬한다. 그 사이 삭제돼서 rows 에 없는 id 는 건너뛴다.
+     */
+    public static <T, ID> List<T> restoreOrder(List<ID> ids, List<T> rows, Function<T, ID> idOf) {
+        Map<ID, T> byId = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            byId.putIfAbsent(idOf.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (ID id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
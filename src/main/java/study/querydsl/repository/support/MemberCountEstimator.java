@@ -0,0 +1,228 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원 검색 total 을 count 쿼리 대신 통계로 추정한다. (member.pagination.approximate-count=true)
+ *
+ * 통계는 나이별 회원 수(히스토그램)와 팀 이름별 회원 수이고, statistics-ttl 마다 다시 모은다.
+ * 나이 조건 하나, 팀 조건 하나는 통계 그대로(모은 시점 기준으로 정확), 둘 다 있으면 독립이라고 보고 추정하면서
+ * Fréchet 범위를 같이 준다. username 조건은 분포를 모으지 않으므로 정확히 센다. (인덱스 equality 라 싸다)
+ * 추정치의 상한이 exact-count-threshold 이하면 결과가 작으니 정확히 센다.
+ *
+ * 처음 한 번은 요청 스레드에서 모으고, 이후에는 만료된 통계를 그대로 쓰면서 백그라운드에서 갱신한다.
+ */
+@Slf4j
+@Component
+public class MemberCountEstimator implements CountEstimatePolicy, DisposableBean {
+
+    private final EntityManager em;
+    private final PaginationProperties properties;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-count-statistics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Statistics statistics;
+
+    public MemberCountEstimator(EntityManager em, PaginationProperties properties) {
+        this.em = em;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isApproximateCount();
+    }
+
+    /**
+     * @return 추정할 수 없는 조건이면 null
+     */
+    public CountEstimate estimate(MemberSearchCondition searchCondition) {
+        MemberSearchCondition condition = searchCondition.normalized();
+        if (hasText(condition.getUsername())) {
+            return null;
+        }
+        Statistics stats = statistics();
+        boolean hasAge = condition.getAgeGoe() != null || condition.getAgeLoe() != null;
+        long ageCount = hasAge ? stats.ageBetween(condition.getAgeGoe(), condition.getAgeLoe()) : stats.total;
+        if (!hasText(condition.getTeamName())) {
+            return CountEstimate.of(ageCount);
+        }
+        long teamCount = stats.teamSizes.getOrDefault(condition.getTeamName(), 0L);
+        return hasAge ? CountEstimate.conjunction(ageCount, teamCount, stats.total) : CountEstimate.of(teamCount);
+    }
+
+    public <T> Page<T> getPage(List<T> content, Pageable pageable, MemberSearchCondition condition, LongSupplier exactCount) {
+        return getPage(content, pageable, () -> estimate(condition), exactCount);
+    }
+
+    /**
+     * content 만으로 total 을 알 수 있으면(마지막 페이지) 그대로, 추정할 수 없거나 작으면 exactCount 로,
+     * 나머지는 추정치로 {@link ApproximatePage} 를 만든다.
+     */
+    @Override
+    public <T> Page<T> getPage(List<T> content, Pageable pageable, Supplier<CountEstimate> estimator, LongSupplier exactCount) {
+        if (pageable.isUnpaged() || isLastPage(content, pageable)) {
+            return PageableExecutionUtils.getPage(content, pageable, exactCount);
+        }
+        CountEstimate estimate = estimator.get();
+        if (estimate == null || estimate.getUpperBound() <= properties.getExactCountThreshold()) {
+            return PageableExecutionUtils.getPage(content, pageable, exactCount);
+        }
+        // 이번 페이지까지 읽은 row 수보다 작을 수는 없다.
+        long seen = content.isEmpty() ? 0 : pageable.getOffset() + content.size();
+        return new ApproximatePage<>(content, pageable, Math.max(estimate.getEstimate(), seen),
+                Math.max(estimate.getLowerBound(), seen), Math.max(estimate.getUpperBound(), seen));
+    }
+
+    // 첫 페이지가 덜 찼거나, 뒤 페이지인데 row 가 있으면서 덜 찼으면 total = offset + size
+    private static boolean isLastPage(List<?> content, Pageable pageable) {
+        return content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty());
+    }
+
+    /**
+     * 바로 다시 모은다. (대량 적재 직후, 테스트)
+     */
+    public void refresh() {
+        loadLock.lock();
+        try {
+            statistics = load();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Statistics statistics() {
+        Statistics current = statistics;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                if (statistics == null) {
+                    statistics = load();
+                }
+                return statistics;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        if (current.isExpired(properties.getStatisticsTtl().toNanos())) {
+            refreshInBackground(current);
+        }
+        return current;
+    }
+
+    private void refreshInBackground(Statistics expired) {
+        if (!loadLock.tryLock()) {
+            return;
+        }
+        try {
+            // 갱신 중에 다시 요청이 와도 한 번만 모으도록, 작업이 끝날 때까지 만료 시각을 미룬다.
+            expired.loadedAt = System.nanoTime();
+            refresher.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    log.warn("failed to refresh member count statistics", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("member count statistics refresher is shut down");
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Statistics load() {
+        long start = System.nanoTime();
+        List<Object[]> ageRows = em.createQuery(
+                        "select m.age, count(m) from Member m group by m.age order by m.age", Object[].class)
+                .getResultList();
+        List<Object[]> teamRows = em.createQuery(
+                        "select t.name, count(m) from Member m join m.team t group by t.name", Object[].class)
+                .getResultList();
+
+        int[] ages = new int[ageRows.size()];
+        long[] cumulative = new long[ageRows.size()];
+        long total = 0;
+        for (int i = 0; i < ages.length; i++) {
+            ages[i] = (Integer) ageRows.get(i)[0];
+            total += (Long) ageRows.get(i)[1];
+            cumulative[i] = total;
+        }
+        Map<String, Long> teamSizes = new HashMap<>();
+        for (Object[] row : teamRows) {
+            teamSizes.put((String) row[0], (Long) row[1]);
+        }
+        log.info("member count statistics loaded. members={}, ages={}, teams={}, elapsed={}ms", total, ages.length,
+                teamSizes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new Statistics(total, ages, cumulative, teamSizes);
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    private static class Statistics {
+
+        private final long total;
+        // 나이 오름차순, cumulative[i] = 나이가 ages[i] 이하인 회원 수
+        private final int[] ages;
+        private final long[] cumulative;
+        private final Map<String, Long> teamSizes;
+        private volatile long loadedAt = System.nanoTime();
+
+        Statistics(long total, int[] ages, long[] cumulative, Map<String, Long> teamSizes) {
+            this.total = total;
+            this.ages = ages;
+            this.cumulative = cumulative;
+            this.teamSizes = teamSizes;
+        }
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+
+        long ageBetween(Integer goe, Integer loe) {
+            long from = goe != null ? goe : Long.MIN_VALUE + 1;
+            long to = loe != null ? loe : Long.MAX_VALUE;
+            return from > to ? 0 : countAtMost(to) - countAtMost(from - 1);
+        }
+
+        private long countAtMost(long age) {
+            if (age < Integer.MIN_VALUE) {
+                return 0;
+            }
+            if (age >= Integer.MAX_VALUE) {
+                return total;
+            }
+            int index = Arrays.binarySearch(ages, (int) age);
+            int last = index >= 0 ? index : -index - 2;
+            return last < 0 ? 0 : cumulative[last];
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberCursorSort;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 키셋(seek) 페이징용 커서
+ * 마지막으로 내려준 row 의 (정렬 키, member.id) 를 담고, 클라이언트에는 base64 문자열로만 노출한다.
+ */
+@Getter
+public class MemberCursor {
+
+    private static final String VERSION = "v1";
+    private static final String DELIMITER = ":";
+
+    private final MemberCursorSort sort;
+    private final int age;
+    private final long id;
+
+    private MemberCursor(MemberCursorSort sort, int age, long id) {
+        this.sort = sort;
+        this.age = age;
+        this.id = id;
+    }
+
+    public static MemberCursor after(MemberCursorSort sort, MemberTeamDto last) {
+        return new MemberCursor(sort, last.getAge(), last.getMemberId());
+    }
+
+    /**
+     * 커서가 없으면 첫 페이지이므로 null 을 반환한다.
+     */
+    public static MemberCursor decode(String cursor, MemberCursorSort sort) {
+        if (!hasText(cursor)) {
+            return null;
+        }
+        String[] tokens;
+        try {
+            tokens = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(DELIMITER);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+        if (tokens.length != 4 || !VERSION.equals(tokens[0])) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+        }
+        if (!sort.name().equals(tokens[1])) {
+            throw new IllegalArgumentException("커서의 정렬(" + tokens[1] + ")과 요청한 정렬(" + sort + ")이 다릅니다.");
+        }
+        try {
+            return new MemberCursor(sort, Integer.parseInt(tokens[2]), Long.parseLong(tokens[3]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = VERSION + DELIMITER + sort.name() + DELIMITER + age + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
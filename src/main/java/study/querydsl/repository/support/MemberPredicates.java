@@ -0,0 +1,74 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import study.querydsl.dto.MemberSearchCondition;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색 조건 -> Querydsl predicate. 모든 리포지토리가 같은 규칙으로 where 절을 만든다.
+ * - 문자열은 trim 하고, 공백뿐이면 조건이 없는 것으로 본다.
+ * - 나이는 ageGoe == ageLoe 면 age = ?, 둘 다 있으면 between 하나로 보낸다.
+ * - ageGoe > ageLoe 처럼 결과가 없는 게 확실한 조건은 {@link #isUnsatisfiable} 로 DB 에 보내기 전에 걸러낸다.
+ * 팀 조건은 team 별칭(leftJoin(member.team, team))을 쓴다.
+ */
+public final class MemberPredicates {
+
+    private MemberPredicates() {
+    }
+
+    /**
+     * 조건을 만족하는 회원이 있을 수 없으면 true. 쿼리 없이 빈 결과를 돌려주면 된다.
+     */
+    public static boolean isUnsatisfiable(MemberSearchCondition condition) {
+        return condition.getAgeGoe() != null && condition.getAgeLoe() != null
+                && condition.getAgeGoe() > condition.getAgeLoe();
+    }
+
+    /**
+     * 문자열 조건으로 쓸 값. 공백뿐이면 null (조건 없음)
+     */
+    public static String text(String value) {
+        return hasText(value) ? value.trim() : null;
+    }
+
+    /**
+     * 나이 범위가 한 점이면 true. between 대신 age = ? 로 보낸다.
+     */
+    public static boolean isAgeEq(Integer ageGoe, Integer ageLoe) {
+        return ageGoe != null && ageGoe.equals(ageLoe);
+    }
+
+    /**
+     * @return 조건이 하나도 없으면 null (where 에서 무시된다)
+     */
+    public static BooleanExpression where(MemberSearchCondition condition) {
+        return Expressions.allOf(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageBetween(condition.getAgeGoe(), condition.getAgeLoe()));
+    }
+
+    public static BooleanExpression usernameEq(String username) {
+        String value = text(username);
+        return value != null ? member.username.eq(value) : null;
+    }
+
+    public static BooleanExpression teamNameEq(String teamName) {
+        String value = text(teamName);
+        return value != null ? team.name.eq(value) : null;
+    }
+
+    public static BooleanExpression ageBetween(Integer ageGoe, Integer ageLoe) {
+        if (ageGoe != null && ageLoe != null) {
+            return isAgeEq(ageGoe, ageLoe) ? member.age.eq(ageGoe) : member.age.between(ageGoe, ageLoe);
+        }
+        if (ageGoe != null) {
+            return member.age.goe(ageGoe);
+        }
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
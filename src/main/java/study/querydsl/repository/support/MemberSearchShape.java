@@ -0,0 +1,172 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.Query;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 회원 검색 쿼리 모양(shape) 캐시
+ * 검색 조건 4개의 null 여부 조합은 16가지뿐이므로, 조합(bitmask)별 JPQL 을 한 번만 만들어 두고
+ * 요청마다 파라미터만 바인딩한다. JPQL 문자열이 같으니 하이버네이트 쿼리 플랜 캐시도 그대로 재사용된다.
+ * 정렬은 {@link MemberSortOrder} (id / age) 만 지원하고, 인메모리 인덱스와 같은 순서로 돌려준다.
+ *
+ * where 절은 {@link MemberPredicates} 와 같은 규칙으로 만든다. 나이 범위가 한 점이면(ageGoe == ageLoe)
+ * JPQL 만 age = :age 로 바뀌므로, 그 경우는 shape 에는 넣지 않고 JPQL 을 고를 때만 AGE_EQ 를 더한다.
+ */
+public final class MemberSearchShape {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int SHAPE_COUNT = 1 << 4;
+    // JPQL 을 고를 때만 쓰는 비트. AGE_GOE | AGE_LOE 와 같이 켜진다.
+    private static final int AGE_EQ = SHAPE_COUNT;
+    private static final int JPQL_COUNT = SHAPE_COUNT << 1;
+
+    private static final String CONTENT_SELECT =
+            "select new study.querydsl.dto.MemberTeamDto(m.id, m.username, m.age, t.id, t.name)" +
+            " from Member m left join m.team t";
+    private static final String COUNT_SELECT = "select count(m) from Member m";
+    private static final String ID_SELECT = "select m.id from Member m";
+    // deferred join 2단계. 1단계에서 고른 id 만 넓은 projection 으로 읽는다.
+    private static final String HYDRATE_JPQL = CONTENT_SELECT + " where m.id in :ids";
+    private static final String TEAM_JOIN = " left join m.team t";
+
+    private static final String[] NAMES = new String[SHAPE_COUNT];
+    private static final MemberSortOrder[] ORDERS = MemberSortOrder.values();
+    private static final String[][] CONTENT_JPQL = new String[JPQL_COUNT][ORDERS.length];
+    private static final String[] COUNT_JPQL = new String[JPQL_COUNT];
+    private static final String[][] ID_JPQL = new String[JPQL_COUNT][ORDERS.length];
+
+    static {
+        for (int shape = 0; shape < SHAPE_COUNT; shape++) {
+            NAMES[shape] = name(shape);
+        }
+        for (int shape = 0; shape < JPQL_COUNT; shape++) {
+            String where = where(shape);
+            // member -> team 은 ManyToOne 이라 left join 으로 row 가 늘지 않으므로 팀 조건이 없으면 조인을 생략한다.
+            String join = (shape & TEAM_NAME) != 0 ? TEAM_JOIN : "";
+            COUNT_JPQL[shape] = COUNT_SELECT + join + where;
+            // deferred join 으로 바뀌는 offset 앞뒤로 페이지가 이어지도록 content 와 id 조회를 같은 순서로 정렬한다.
+            for (MemberSortOrder order : ORDERS) {
+                CONTENT_JPQL[shape][order.ordinal()] = CONTENT_SELECT + where + order.jpql();
+                ID_JPQL[shape][order.ordinal()] = ID_SELECT + join + where + order.jpql();
+            }
+        }
+    }
+
+    private MemberSearchShape() {
+    }
+
+    public static int of(MemberSearchCondition condition) {
+        int shape = 0;
+        if (MemberPredicates.text(condition.getUsername()) != null) {
+            shape |= USERNAME;
+        }
+        if (MemberPredicates.text(condition.getTeamName()) != null) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    /**
+     * 메트릭 태그 등에 쓰는 이름. 예) "username+ageGoe", 조건이 없으면 "none"
+     */
+    public static String name(int shape) {
+        if (NAMES[shape] != null) {
+            return NAMES[shape];
+        }
+        StringBuilder name = new StringBuilder();
+        appendName(name, shape, USERNAME, "username");
+        appendName(name, shape, TEAM_NAME, "teamName");
+        appendName(name, shape, AGE_GOE, "ageGoe");
+        appendName(name, shape, AGE_LOE, "ageLoe");
+        return name.length() == 0 ? "none" : name.toString();
+    }
+
+    /**
+     * id 오름차순
+     */
+    public static String contentJpql(int shape, MemberSearchCondition condition) {
+        return contentJpql(shape, condition, MemberSortOrder.ID_ASC);
+    }
+
+    public static String contentJpql(int shape, MemberSearchCondition condition, MemberSortOrder order) {
+        return CONTENT_JPQL[jpql(shape, condition)][order.ordinal()];
+    }
+
+    public static String countJpql(int shape, MemberSearchCondition condition) {
+        return COUNT_JPQL[jpql(shape, condition)];
+    }
+
+    /**
+     * deferred join 1단계: 조건에 맞는 member id 를 order 순으로
+     */
+    public static String idJpql(int shape, MemberSearchCondition condition, MemberSortOrder order) {
+        return ID_JPQL[jpql(shape, condition)][order.ordinal()];
+    }
+
+    public static String hydrateJpql() {
+        return HYDRATE_JPQL;
+    }
+
+    public static <Q extends Query> Q bind(Q query, int shape, MemberSearchCondition condition) {
+        if ((shape & USERNAME) != 0) {
+            query.setParameter("username", MemberPredicates.text(condition.getUsername()));
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            query.setParameter("teamName", MemberPredicates.text(condition.getTeamName()));
+        }
+        if ((jpql(shape, condition) & AGE_EQ) != 0) {
+            query.setParameter("age", condition.getAgeGoe());
+            return query;
+        }
+        if ((shape & AGE_GOE) != 0) {
+            query.setParameter("ageGoe", condition.getAgeGoe());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            query.setParameter("ageLoe", condition.getAgeLoe());
+        }
+        return query;
+    }
+
+    private static int jpql(int shape, MemberSearchCondition condition) {
+        boolean range = (shape & (AGE_GOE | AGE_LOE)) == (AGE_GOE | AGE_LOE);
+        return range && MemberPredicates.isAgeEq(condition.getAgeGoe(), condition.getAgeLoe()) ? shape | AGE_EQ : shape;
+    }
+
+    // MemberPredicates.ageBetween 과 같은 모양: 한 점이면 =, 양쪽이면 between, 한쪽이면 >= / <=
+    private static String where(int jpql) {
+        StringBuilder where = new StringBuilder();
+        append(where, jpql, USERNAME, "m.username = :username");
+        append(where, jpql, TEAM_NAME, "t.name = :teamName");
+        if ((jpql & AGE_EQ) != 0) {
+            append(where, jpql, AGE_EQ, "m.age = :age");
+        } else if ((jpql & (AGE_GOE | AGE_LOE)) == (AGE_GOE | AGE_LOE)) {
+            append(where, jpql, AGE_GOE, "m.age between :ageGoe and :ageLoe");
+        } else {
+            append(where, jpql, AGE_GOE, "m.age >= :ageGoe");
+            append(where, jpql, AGE_LOE, "m.age <= :ageLoe");
+        }
+        return where.toString();
+    }
+
+    private static void appendName(StringBuilder name, int shape, int flag, String field) {
+        if ((shape & flag) != 0) {
+            name.append(name.length() == 0 ? "" : "+").append(field);
+        }
+    }
+
+    private static void append(StringBuilder where, int shape, int flag, String predicate) {
+        if ((shape & flag) == 0) {
+            return;
+        }
+        where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * 회원 검색이 지원하는 정렬. DB(MemberSearchShape)와 인메모리 인덱스가 같은 순서로 돌려주도록 둘 다 이것만 쓴다.
+ * 나이 정렬의 동률은 같은 방향의 id 순서로 정한다.
+ */
+public enum MemberSortOrder {
+
+    ID_ASC(" order by m.id"),
+    ID_DESC(" order by m.id desc"),
+    AGE_ASC(" order by m.age, m.id"),
+    AGE_DESC(" order by m.age desc, m.id desc");
+
+    private final String jpql;
+
+    MemberSortOrder(String jpql) {
+        this.jpql = jpql;
+    }
+
+    public String jpql() {
+        return jpql;
+    }
+
+    /**
+     * 정렬이 없으면 id 오름차순. 지원하지 않는 정렬이면 null
+     */
+    public static MemberSortOrder of(Sort sort) {
+        if (sort.isUnsorted()) {
+            return ID_ASC;
+        }
+        if (sort.stream().count() != 1) {
+            return null;
+        }
+        Sort.Order order = sort.iterator().next();
+        return switch (order.getProperty()) {
+            case "id", "memberId" -> order.isAscending() ? ID_ASC : ID_DESC;
+            case "age" -> order.isAscending() ? AGE_ASC : AGE_DESC;
+            default -> null;
+        };
+    }
+
+    /**
+     * DB 검색용. 지원하지 않는 정렬은 id 오름차순으로 돌려준다. (인덱스도 이때는 DB 로 넘기므로 결과가 같다)
+     */
+    public static MemberSortOrder orDefault(Sort sort) {
+        MemberSortOrder order = of(sort);
+        return order != null ? order : ID_ASC;
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 페이징 설정 (member.pagination.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.pagination")
+public class PaginationProperties {
+
+    // true 면 content 쿼리와 count 쿼리를 동시에 실행한다. (count 는 별도 커넥션 / 트랜잭션)
+    private boolean parallelCount = false;
+
+    // 동시에 실행할 수 있는 count 쿼리 수. 넘치면 호출 스레드에서 순서대로 실행한다. (커넥션 풀 고갈 방지)
+    private int maxConcurrentCounts = 4;
+
+    private Duration countTimeout = Duration.ofSeconds(10);
+
+    // offset 이 이 값 이상이면 searchPageComplex 가 id 만 먼저 페이징하고 그 id 로 row 를 읽는다. (deferred join)
+    // 쿼리가 하나 늘어나므로 앞쪽 페이지는 한 번에 읽는 편이 낫다.
+    private long deferredJoinMinOffset = 1000;
+
+    // true 면 total 을 count 쿼리 대신 통계(나이별 / 팀별 회원 수)로 추정한다. (ApproximatePage)
+    private boolean approximateCount = false;
+
+    // 추정치의 상한이 이 값 이하면 count 쿼리로 정확히 센다.
+    private long exactCountThreshold = 1000;
+
+    // 추정에 쓰는 통계를 다시 모으는 주기
+    private Duration statisticsTtl = Duration.ofMinutes(5);
+}
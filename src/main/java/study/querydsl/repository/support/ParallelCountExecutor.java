@@ -0,0 +1,182 @@
+package study.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * content 쿼리와 count 쿼리를 동시에 실행해서 Page 를 만든다. (member.pagination.parallel-count=true)
+ *
+ * count 는 다른 스레드에서 새 읽기 전용 트랜잭션(= 새 EntityManager, 새 커넥션)으로 실행한다.
+ * 공유 EntityManager 프록시로 만든 쿼리는 실행되는 스레드의 트랜잭션에 붙으므로 그대로 넘겨도 된다.
+ * 호출하는 쪽이 쓰기 트랜잭션 안이면 커밋 전 데이터가 count 에 안 보이므로 순서대로 실행한다.
+ *
+ * JDK 21 이상이면 virtual thread, 아니면 고정 크기 스레드 풀을 쓴다.
+ */
+@Slf4j
+@Component
+public class ParallelCountExecutor implements DisposableBean {
+
+    private final PaginationProperties properties;
+    private final TransactionTemplate countTransaction;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public ParallelCountExecutor(PaginationProperties properties, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.countTransaction.setReadOnly(true);
+        this.executor = newExecutor(properties.getMaxConcurrentCounts());
+        this.permits = new Semaphore(properties.getMaxConcurrentCounts());
+    }
+
+    public boolean isEnabled() {
+        return properties.isParallelCount();
+    }
+
+    public <T> Page<T> getPage(Supplier<List<T>> contentQuery, Pageable pageable, LongSupplier countQuery) {
+        if (!canRunInParallel() || !permits.tryAcquire()) {
+            return sequential(contentQuery, pageable, countQuery);
+        }
+
+        PendingCount count = new PendingCount();
+        try {
+            count.future = executor.submit(() -> {
+                try {
+                    return countTransaction.execute(status -> countQuery.getAsLong());
+                } finally {
+                    count.releasePermit();
+                }
+            });
+        } catch (RuntimeException e) {
+            count.releasePermit();
+            throw e;
+        }
+
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } catch (RuntimeException | Error e) {
+            count.cancel();
+            throw e;
+        }
+
+        // PageableExecutionUtils 와 같은 규칙: content 만으로 total 을 알 수 있으면 count 는 버린다.
+        Long total = totalFromContent(content, pageable);
+        if (total != null) {
+            count.cancel();
+            return new PageImpl<>(content, pageable, total);
+        }
+        return new PageImpl<>(content, pageable, count.await(properties.getCountTimeout().toMillis()));
+    }
+
+    /**
+     * 실행 전에 취소된 작업은 finally 가 돌지 않으므로, permit 반환은 작업과 취소 중 먼저 온 쪽이 한 번만 한다.
+     */
+    private class PendingCount {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+        private Future<Long> future;
+
+        void releasePermit() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        void cancel() {
+            future.cancel(true);
+            releasePermit();
+        }
+
+        long await(long timeoutMillis) {
+            try {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("count query failed", cause);
+            } catch (TimeoutException e) {
+                cancel();
+                throw new IllegalStateException("count query timed out after " + timeoutMillis + "ms", e);
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("interrupted while waiting for count query");
+            }
+        }
+    }
+
+    private static <T> Page<T> sequential(Supplier<List<T>> contentQuery, Pageable pageable, LongSupplier countQuery) {
+        List<T> content = contentQuery.get();
+        Long total = totalFromContent(content, pageable);
+        return new PageImpl<>(content, pageable, total != null ? total : countQuery.getAsLong());
+    }
+
+    private static Long totalFromContent(List<?> content, Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getOffset() == 0) {
+            if (pageable.isUnpaged() || pageable.getPageSize() > content.size()) {
+                return (long) content.size();
+            }
+            return null;
+        }
+        if (!content.isEmpty() && pageable.getPageSize() > content.size()) {
+            return pageable.getOffset() + content.size();
+        }
+        return null;
+    }
+
+    private static boolean canRunInParallel() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static ExecutorService newExecutor(int poolSize) {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            log.info("parallel count executor: virtual threads");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger sequence = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(1, poolSize), runnable -> {
+                Thread thread = new Thread(runnable, "page-count-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -10,6 +10,8 @@ import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import
         org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
@@ -20,7 +22,9 @@ import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리 *
  * @author Younghan Kim
@@ -33,6 +37,7 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ParallelCountExecutor parallelCountExecutor;
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
@@ -50,6 +55,10 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
 
     }
+    @Autowired
+    public void setParallelCountExecutor(ParallelCountExecutor parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
@@ -74,6 +83,13 @@ public abstract class Querydsl4RepositorySupport {
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        if (isParallelCount()) {
+            // applyPagination 이 jpaQuery 에 offset / limit 를 붙이므로 count 용으로 먼저 복사해둔다.
+            JPAQuery countQuery = jpaQuery.clone();
+            return parallelCountExecutor.getPage(
+                    () -> getQuerydsl().applyPagination(pageable, jpaQuery).fetch(),
+                    pageable, countQuery::fetchCount);
+        }
         List<T> content = getQuerydsl().applyPagination(pageable,
                 jpaQuery).fetch();
         return PageableExecutionUtils.getPage(content, pageable,
@@ -83,10 +99,68 @@ public abstract class Querydsl4RepositorySupport {
                                           Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
             JPAQuery> countQuery) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        if (isParallelCount()) {
+            JPAQuery countResult = countQuery.apply(getQueryFactory());
+            return parallelCountExecutor.getPage(
+                    () -> getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch(),
+                    pageable, countResult::fetchCount);
+        }
         List<T> content = getQuerydsl().applyPagination(pageable,
 
                 jpaContentQuery).fetch();
         JPAQuery countResult = countQuery.apply(getQueryFactory());
         return PageableExecutionUtils.getPage(content, pageable,
                 countResult::fetchCount);
+    }
+    /**
+     * policy 가 켜져 있으면 total 을 estimate 로 추정한다. (ApproximatePage)
+     * estimate 를 믿을 수 없으면 policy 가 countQuery 로 정확히 센다.
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
+            JPAQuery> countQuery, Supplier<CountEstimate> estimate, CountEstimatePolicy policy) {
+        if (policy == null || !policy.isEnabled()) {
+            return applyPagination(pageable, contentQuery, countQuery);
+        }
+        List<T> content = getQuerydsl().applyPagination(pageable,
+                contentQuery.apply(getQueryFactory())).fetch();
+        return policy.getPage(content, pageable, estimate,
+                () -> countQuery.apply(getQueryFactory()).fetchCount());
+    }
+    /**
+     * deferred join 페이징. idQuery 에 정렬 / offset / limit 을 붙여 페이지의 id 만 먼저 조회하고,
+     * contentQuery 로 그 id 들의 row 만 읽은 뒤 idQuery 의 순서로 되돌린다. ({@link DeferredJoin})
+     * offset 이 크고 row 가 넓을수록(조인, fetch join) 한 번에 읽는 것보다 싸다.
+     */
+    protected <T, ID> Page<T> applyDeferredPagination(Pageable pageable,
+                                                      Function<JPAQueryFactory, JPAQuery<ID>> idQuery,
+                                                      BiFunction<JPAQueryFactory, List<ID>, JPAQuery<T>> contentQuery,
+                                                      Function<T, ID> idOf,
+                                                      Function<JPAQueryFactory, JPAQuery> countQuery) {
+        List<ID> ids = getQuerydsl().applyPagination(pageable,
+                idQuery.apply(getQueryFactory())).fetch();
+        List<T> content = ids.isEmpty() ? List.of()
+                : DeferredJoin.restoreOrder(ids, contentQuery.apply(getQueryFactory(), ids).fetch(), idOf);
+        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        return PageableExecutionUtils.getPage(content, pageable,
+                countResult::fetchCount);
+    }
+    /**
+     * count 쿼리 없이 pageSize + 1 건을 조회해서 다음 페이지 존재 여부만 판단한다. (무한 스크롤)
+     */
+    protected <T> Slice<T> applySlicing(Pageable pageable,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<T>(jpaQuery.fetch());
+        }
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+        List<T> rows = jpaQuery.offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+    private boolean isParallelCount() {
+        return parallelCountExecutor != null && parallelCountExecutor.isEnabled();
     } }
\ No newline at end of file
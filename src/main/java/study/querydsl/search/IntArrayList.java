@@ -0,0 +1,63 @@
+package study.querydsl.search;
+
+import java.util.Arrays;
+
+/**
+ * 오름차순으로 유지하는 int 목록 (posting list)
+ */
+final class IntArrayList {
+
+    private int[] values;
+    private int size;
+
+    IntArrayList() {
+        this(4);
+    }
+
+    IntArrayList(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * 마지막 값보다 큰 값을 붙일 때 (row 를 순서대로 적재할 때)
+     */
+    void append(int value) {
+        grow();
+        values[size++] = value;
+    }
+
+    void insertSorted(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        grow();
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        size++;
+    }
+
+    void removeSorted(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+    }
+
+    private void grow() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+    }
+}
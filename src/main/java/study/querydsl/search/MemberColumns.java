@@ -0,0 +1,483 @@
+package study.querydsl.search;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static study.querydsl.repository.support.MemberSearchShape.AGE_GOE;
+import static study.querydsl.repository.support.MemberSearchShape.AGE_LOE;
+import static study.querydsl.repository.support.MemberSearchShape.TEAM_NAME;
+import static study.querydsl.repository.support.MemberSearchShape.USERNAME;
+
+/**
+ * member left join team 프로젝션의 컬럼 저장소. 스레드 안전하지 않으므로 {@link MemberSearchIndex} 가 lock 으로 감싼다.
+ *
+ * - ids / ages / usernames / teams : row 별 컬럼. 팀은 team slot 번호이고 없으면 -1
+ * - byAge : 살아 있는 row 를 (age, id) 순으로 정렬한 순열. 나이 범위는 binary search 로 자른다.
+ * - usernamePostings / teamMembers : username, 팀 별 row 목록 (row 오름차순)
+ *
+ * row 는 뒤에 붙이기만 하고, 삭제는 tombstone 으로 표시한 뒤 순열과 posting 에서만 뺀다.
+ * 검색 경로는 primitive 배열만 훑고, DTO 는 돌려줄 페이지의 row 만 만든다.
+ */
+final class MemberColumns {
+
+    static final int NONE = -1;
+    private static final int[] EMPTY = new int[0];
+
+    // row 컬럼
+    long[] ids;
+    int[] ages;
+    String[] usernames;
+    int[] teams;
+    boolean[] dead;
+    int rowCount;
+    int liveCount;
+    // 새 row 의 id 가 항상 더 컸다면 row 순서 = id 순서
+    boolean rowsInIdOrder = true;
+    private long maxId = Long.MIN_VALUE;
+    private final LongIntHashMap rowById;
+
+    int[] byAge;
+    int byAgeSize;
+
+    private final Map<String, IntArrayList> usernamePostings = new HashMap<>();
+
+    // 팀
+    long[] teamIds = new long[16];
+    String[] teamNames = new String[16];
+    private IntArrayList[] teamMembers = new IntArrayList[16];
+    int teamCount;
+    private final Map<Long, Integer> slotByTeamId = new HashMap<>();
+    private final Map<String, IntArrayList> teamSlotsByName = new HashMap<>();
+
+    MemberColumns(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        this.ids = new long[capacity];
+        this.ages = new int[capacity];
+        this.usernames = new String[capacity];
+        this.teams = new int[capacity];
+        this.dead = new boolean[capacity];
+        this.byAge = new int[capacity];
+        this.rowById = new LongIntHashMap(capacity);
+    }
+
+    int size() {
+        return liveCount;
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    long[] teamIdsInUse() {
+        return slotByTeamId.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // ---------------------------------------------------------------- 적재 / 변경
+
+    void putTeam(long teamId, String name) {
+        Integer slot = slotByTeamId.get(teamId);
+        if (slot == null) {
+            if (teamCount == teamIds.length) {
+                teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+                teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+                teamMembers = Arrays.copyOf(teamMembers, teamCount * 2);
+            }
+            slot = teamCount++;
+            teamIds[slot] = teamId;
+            teamMembers[slot] = new IntArrayList();
+            slotByTeamId.put(teamId, slot);
+        } else if (Objects.equals(teamNames[slot], name)) {
+            return;
+        } else {
+            posting(teamSlotsByName, teamNames[slot], false).removeSorted(slot);
+        }
+        teamNames[slot] = name;
+        posting(teamSlotsByName, name, true).insertSorted(slot);
+    }
+
+    void removeTeam(long teamId) {
+        Integer slot = slotByTeamId.remove(teamId);
+        if (slot == null) {
+            return;
+        }
+        posting(teamSlotsByName, teamNames[slot], false).removeSorted(slot);
+        // 회원이 남은 팀은 외래키 때문에 지워지지 않으므로 slot 은 비워두기만 한다.
+        teamNames[slot] = null;
+    }
+
+    /**
+     * 초기 적재용. id 오름차순으로 넣고 마지막에 {@link #finishLoad()} 를 호출해야 한다.
+     * @return teamId 를 모르면 false
+     */
+    boolean appendLoaded(long id, String username, int age, Long teamId) {
+        int slot = slotOf(teamId);
+        if (slot == NONE && teamId != null) {
+            return false;
+        }
+        int row = appendRow(id, username, age, slot);
+        posting(usernamePostings, username, true).append(row);
+        if (slot != NONE) {
+            teamMembers[slot].append(row);
+        }
+        return true;
+    }
+
+    /**
+     * (age, row) 를 long 하나로 묶어 정렬한다. 적재 중에는 row 순서 = id 순서이므로 (age, id) 순서와 같다.
+     */
+    void finishLoad() {
+        long[] keys = new long[rowCount];
+        int n = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!dead[row]) {
+                keys[n++] = ((long) ages[row] << 32) | row;
+            }
+        }
+        Arrays.sort(keys, 0, n);
+        for (int i = 0; i < n; i++) {
+            byAge[i] = (int) keys[i];
+        }
+        byAgeSize = n;
+    }
+
+    /**
+     * @return teamId 를 모르면 false (호출하는 쪽에서 다시 적재해야 한다)
+     */
+    boolean putMember(long id, String username, int age, Long teamId) {
+        int slot = slotOf(teamId);
+        if (slot == NONE && teamId != null) {
+            return false;
+        }
+        int row = rowById.get(id);
+        if (row == LongIntHashMap.MISSING) {
+            row = appendRow(id, username, age, slot);
+            posting(usernamePostings, username, true).insertSorted(row);
+            if (slot != NONE) {
+                teamMembers[slot].insertSorted(row);
+            }
+            insertByAge(row);
+            return true;
+        }
+
+        if (!Objects.equals(usernames[row], username)) {
+            posting(usernamePostings, usernames[row], false).removeSorted(row);
+            usernames[row] = username;
+            posting(usernamePostings, username, true).insertSorted(row);
+        }
+        if (teams[row] != slot) {
+            if (teams[row] != NONE) {
+                teamMembers[teams[row]].removeSorted(row);
+            }
+            teams[row] = slot;
+            if (slot != NONE) {
+                teamMembers[slot].insertSorted(row);
+            }
+        }
+        if (ages[row] != age) {
+            removeByAge(row);
+            ages[row] = age;
+            insertByAge(row);
+        }
+        return true;
+    }
+
+    void removeMember(long id) {
+        int row = rowById.get(id);
+        if (row == LongIntHashMap.MISSING) {
+            return;
+        }
+        rowById.remove(id);
+        removeByAge(row);
+        posting(usernamePostings, usernames[row], false).removeSorted(row);
+        if (teams[row] != NONE) {
+            teamMembers[teams[row]].removeSorted(row);
+        }
+        dead[row] = true;
+        liveCount--;
+    }
+
+    /**
+     * sortedIds 에 없는 회원을 지운다. (스냅샷 이후 삭제된 회원 정리)
+     * @return 지운 회원 수
+     */
+    int removeMissing(long[] sortedIds) {
+        int removed = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!dead[row] && Arrays.binarySearch(sortedIds, ids[row]) < 0) {
+                removeMember(ids[row]);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private int appendRow(long id, String username, int age, int slot) {
+        if (rowCount == ids.length) {
+            int capacity = rowCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            teams = Arrays.copyOf(teams, capacity);
+            dead = Arrays.copyOf(dead, capacity);
+            byAge = Arrays.copyOf(byAge, capacity);
+        }
+        int row = rowCount++;
+        ids[row] = id;
+        ages[row] = age;
+        usernames[row] = username;
+        teams[row] = slot;
+        if (id < maxId) {
+            rowsInIdOrder = false;
+        }
+        maxId = Math.max(maxId, id);
+        rowById.put(id, row);
+        liveCount++;
+        return row;
+    }
+
+    private int slotOf(Long teamId) {
+        if (teamId == null) {
+            return NONE;
+        }
+        Integer slot = slotByTeamId.get(teamId);
+        return slot != null ? slot : NONE;
+    }
+
+    private void insertByAge(int row) {
+        int position = -searchByAge(ages[row], ids[row]) - 1;
+        System.arraycopy(byAge, position, byAge, position + 1, byAgeSize - position);
+        byAge[position] = row;
+        byAgeSize++;
+    }
+
+    private void removeByAge(int row) {
+        int position = searchByAge(ages[row], ids[row]);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(byAge, position + 1, byAge, position, byAgeSize - position - 1);
+        byAgeSize--;
+    }
+
+    // (age, id) 로 byAge 를 찾는다. 없으면 -(삽입 위치) - 1
+    private int searchByAge(int age, long id) {
+        int low = 0;
+        int high = byAgeSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = byAge[mid];
+            int compare = ages[row] != age ? Integer.compare(ages[row], age) : Long.compare(ids[row], id);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // age 이상인 첫 위치
+    private int lowerBound(int age) {
+        int low = 0;
+        int high = byAgeSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ages[byAge[mid]] < age) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // age 보다 큰 첫 위치
+    private int upperBound(int age) {
+        int low = 0;
+        int high = byAgeSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ages[byAge[mid]] <= age) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static IntArrayList posting(Map<String, IntArrayList> postings, String key, boolean create) {
+        // null 값은 검색 조건이 될 수 없으므로 따로 모으지 않는다.
+        if (key == null) {
+            return new IntArrayList(1);
+        }
+        IntArrayList posting = postings.get(key);
+        if (posting == null) {
+            posting = new IntArrayList();
+            if (create) {
+                postings.put(key, posting);
+            }
+        }
+        return posting;
+    }
+
+    // ---------------------------------------------------------------- 검색
+
+    /**
+     * 조건에 맞는 row 를 order 순서로 돌려준다.
+     */
+    int[] select(int shape, MemberSearchCondition condition, RowOrder order) {
+        String username = (shape & USERNAME) != 0 ? condition.getUsername().trim() : null;
+        String teamName = (shape & TEAM_NAME) != 0 ? condition.getTeamName().trim() : null;
+        int minAge = (shape & AGE_GOE) != 0 ? condition.getAgeGoe() : Integer.MIN_VALUE;
+        int maxAge = (shape & AGE_LOE) != 0 ? condition.getAgeLoe() : Integer.MAX_VALUE;
+        if (minAge > maxAge) {
+            return EMPTY;
+        }
+
+        int[] rows;
+        int n = 0;
+        boolean ageOrdered = false;
+        // 가장 좁은 목록에서 시작해서 나머지 조건은 컬럼 값으로 거른다.
+        if (username != null) {
+            IntArrayList posting = usernamePostings.get(username);
+            if (posting == null) {
+                return EMPTY;
+            }
+            rows = new int[posting.size()];
+            for (int i = 0; i < posting.size(); i++) {
+                int row = posting.get(i);
+                if (teamMatches(row, teamName) && ages[row] >= minAge && ages[row] <= maxAge) {
+                    rows[n++] = row;
+                }
+            }
+        } else if (teamName != null) {
+            IntArrayList slots = teamSlotsByName.get(teamName);
+            if (slots == null) {
+                return EMPTY;
+            }
+            int total = 0;
+            for (int i = 0; i < slots.size(); i++) {
+                total += teamMembers[slots.get(i)].size();
+            }
+            rows = new int[total];
+            for (int i = 0; i < slots.size(); i++) {
+                IntArrayList members = teamMembers[slots.get(i)];
+                for (int j = 0; j < members.size(); j++) {
+                    int row = members.get(j);
+                    if (ages[row] >= minAge && ages[row] <= maxAge) {
+                        rows[n++] = row;
+                    }
+                }
+            }
+            if (slots.size() > 1) {
+                Arrays.sort(rows, 0, n);
+            }
+        } else if (minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE) {
+            int from = lowerBound(minAge);
+            rows = Arrays.copyOfRange(byAge, from, Math.max(from, upperBound(maxAge)));
+            n = rows.length;
+            ageOrdered = true;
+        } else {
+            rows = new int[liveCount];
+            for (int row = 0; row < rowCount; row++) {
+                if (!dead[row]) {
+                    rows[n++] = row;
+                }
+            }
+        }
+
+        if (n < rows.length) {
+            rows = Arrays.copyOf(rows, n);
+        }
+        return order(rows, ageOrdered, order);
+    }
+
+    private boolean teamMatches(int row, String teamName) {
+        return teamName == null || (teams[row] != NONE && teamName.equals(teamNames[teams[row]]));
+    }
+
+    private int[] order(int[] rows, boolean ageOrdered, RowOrder order) {
+        boolean idOrdered = !ageOrdered && rowsInIdOrder;
+        switch (order) {
+            case ID_ASC, ID_DESC -> {
+                if (!idOrdered) {
+                    sort(rows, (a, b) -> Long.compare(ids[a], ids[b]));
+                }
+            }
+            case AGE_ASC, AGE_DESC -> {
+                if (!ageOrdered) {
+                    sort(rows, (a, b) -> ages[a] != ages[b] ? Integer.compare(ages[a], ages[b]) : Long.compare(ids[a], ids[b]));
+                }
+            }
+        }
+        if (order.isDescending()) {
+            reverse(rows);
+        }
+        return rows;
+    }
+
+    MemberTeamDto toDto(int row) {
+        int slot = teams[row];
+        return new MemberTeamDto(ids[row], usernames[row], ages[row],
+                slot != NONE ? teamIds[slot] : null,
+                slot != NONE ? teamNames[slot] : null);
+    }
+
+    List<MemberTeamDto> toDtos(int[] rows, int from, int to) {
+        List<MemberTeamDto> dtos = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            dtos.add(toDto(rows[i]));
+        }
+        return dtos;
+    }
+
+    @FunctionalInterface
+    interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    // 박싱 없이 int[] 를 정렬하기 위한 merge sort
+    static void sort(int[] rows, RowComparator comparator) {
+        if (rows.length < 2) {
+            return;
+        }
+        int[] buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int low = 0; low < rows.length - width; low += width * 2) {
+                int mid = low + width;
+                int high = Math.min(low + width * 2, rows.length);
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] = comparator.compare(rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = rows[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = rows[j++];
+                }
+                System.arraycopy(buffer, low, rows, low, high - low);
+            }
+        }
+    }
+
+    private static void reverse(int[] rows) {
+        for (int i = 0, j = rows.length - 1; i < j; i++, j--) {
+            int tmp = rows[i];
+            rows[i] = rows[j];
+            rows[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package study.querydsl.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색용 인메모리 컬럼 인덱스 (member.search.index.enabled=true 일 때만)
+ *
+ * 기동 후 member / team 을 한 번 읽어 적재하고, 이후 변경은 {@link MemberSearchIndexListener} 가 커밋 후에 반영한다.
+ * 벌크 연산처럼 리스너를 거치지 않는 변경은 {@link #invalidate()} 로 알려야 하고, 다시 적재하는 동안에는 DB 로 검색한다.
+ * 적재가 실패하면 간격을 늘려 가며 다시 시도한다.
+ * 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 인덱스에 없으므로 쓰지 않는다.
+ *
+ * member.search.index.snapshot.path 가 있으면 주기적으로, 그리고 종료할 때 {@link MemberSnapshot} 을 남기고
+ * 다음 기동 때는 스냅샷에서 복원한다.
+ */
+@Slf4j
+@Component
+public class MemberSearchIndex implements DisposableBean {
+
+    private static final Object SYNCHRONIZATION_KEY = new Object();
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long RETRY_MAX_DELAY_MILLIS = 60_000;
+
+    private final boolean enabled;
+    private final MemberSearchIndexProperties.Snapshot snapshot;
+    private final DataSource dataSource;
+    private final TransactionTemplate snapshotRead;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // 연속으로 실패한 적재 횟수 (재시도 간격 계산)
+    private final AtomicInteger failures = new AtomicInteger();
+    // invalidate 마다 증가. 적재 중에 무효화되면 적재가 끝나도 ready 로 만들지 않는다.
+    private final AtomicLong generation = new AtomicLong();
+
+    private MemberColumns columns; // lock 으로 보호
+    private List<Predicate<MemberColumns>> replay; // 적재 중에 들어온 변경, lock 으로 보호
+    private volatile boolean ready;
+
+    public MemberSearchIndex(MemberSearchIndexProperties properties, DataSource dataSource) {
+        this.enabled = properties.isEnabled();
+        this.snapshot = properties.getSnapshot();
+        this.dataSource = dataSource;
+        this.snapshotRead = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.snapshotRead.setReadOnly(true);
+        this.snapshotRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * 스냅샷이 있으면 복원하고 그 뒤에 바뀐 회원만 DB 에서 읽는다. 없거나 쓸 수 없으면 전부 읽는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        rebuilder.execute(() -> {
+            if (!install("snapshot", this::restore)) {
+                rebuild();
+            }
+        });
+        if (snapshot.getPath() != null) {
+            long interval = snapshot.getInterval().toMillis();
+            rebuilder.scheduleWithFixedDelay(this::writeSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isUsable() {
+        return enabled && ready
+                && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns != null ? columns.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- 검색
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int shape = MemberSearchShape.of(condition);
+        lock.readLock().lock();
+        try {
+            int[] rows = columns.select(shape, condition, RowOrder.ID_ASC);
+            return columns.toDtos(rows, 0, rows.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 지원하지 않는 정렬이면 null
+     */
+    public Page<MemberTeamDto> search(MemberSearchCondition condition, Pageable pageable) {
+        RowOrder order = RowOrder.of(pageable.getSort());
+        if (order == null) {
+            return null;
+        }
+        int shape = MemberSearchShape.of(condition);
+        lock.readLock().lock();
+        try {
+            int[] rows = columns.select(shape, condition, order);
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(columns.toDtos(rows, 0, rows.length), pageable, rows.length);
+            }
+            int from = (int) Math.min(pageable.getOffset(), rows.length);
+            int to = Math.min(from + pageable.getPageSize(), rows.length);
+            return new PageImpl<>(columns.toDtos(rows, from, to), pageable, rows.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- 변경 반영
+
+    public void memberSaved(long id, String username, int age, Long teamId) {
+        afterCommit(columns -> columns.putMember(id, username, age, teamId));
+    }
+
+    public void memberRemoved(long id) {
+        afterCommit(columns -> {
+            columns.removeMember(id);
+            return true;
+        });
+    }
+
+    public void teamSaved(long id, String name) {
+        afterCommit(columns -> {
+            columns.putTeam(id, name);
+            return true;
+        });
+    }
+
+    public void teamRemoved(long id) {
+        afterCommit(columns -> {
+            columns.removeTeam(id);
+            return true;
+        });
+    }
+
+    /**
+     * 리스너를 거치지 않은 변경(벌크 연산, JDBC 직접 적재 등)이 있었을 때. 트랜잭션 안이라면 커밋 후에 다시 적재한다.
+     */
+    public void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        ready = false;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    rebuildAsync();
+                }
+            });
+        } else {
+            rebuildAsync();
+        }
+    }
+
+    public void rebuildAsync() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    public void rebuild() {
+        rebuild(this::load);
+    }
+
+    // 테스트에서 적재 실패를 흉내낼 때 loader 를 바꾼다.
+    synchronized void rebuild(Supplier<MemberColumns> loader) {
+        Instant watermark = Instant.now();
+        if (install("database", loader)) {
+            failures.set(0);
+            writeSnapshot(watermark);
+        } else {
+            retryLater();
+        }
+    }
+
+    /**
+     * 적재가 실패하면 그동안 DB 로 검색하다가, 1초부터 두 배씩(최대 1분) 늘려 가며 다시 적재한다.
+     */
+    private void retryLater() {
+        int attempt = failures.incrementAndGet();
+        long delay = Math.min(RETRY_MAX_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(attempt - 1, 16));
+        log.info("member search index rebuild retry in {}ms. attempt={}", delay, attempt);
+        try {
+            rebuilder.schedule(this::rebuildAsync, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("member search index rebuilder is shut down");
+        }
+    }
+
+    /**
+     * loader 로 만든 컬럼으로 바꾼다. 만드는 동안 커밋된 변경은 모아 두었다가 새 컬럼에 다시 반영한다.
+     * @return loader 가 실패하거나 null 을 돌려주면 false
+     */
+    synchronized boolean install(String source, Supplier<MemberColumns> loader) {
+        long startGeneration = generation.get();
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        MemberColumns loaded = null;
+        long start = System.nanoTime();
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            log.warn("member search index load from {} failed", source, e);
+        }
+        if (loaded == null) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            boolean consistent = true;
+            for (Predicate<MemberColumns> change : replay) {
+                consistent &= change.test(loaded);
+            }
+            replay = null;
+            columns = loaded;
+            ready = consistent && generation.get() == startGeneration;
+            if (!consistent) {
+                generation.incrementAndGet();
+                rebuildAsync();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("member search index loaded from {}. members={}, elapsed={}ms",
+                source, loaded.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+
+    /**
+     * team 과 member 를 한 스냅샷(REPEATABLE_READ 읽기 전용 트랜잭션)에서 읽어 그 사이의 변경이 섞이지 않게 한다.
+     */
+    MemberColumns load() {
+        return snapshotRead.execute(status -> loadColumns());
+    }
+
+    private MemberColumns loadColumns() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(1000);
+        Long expected = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        MemberColumns loaded = new MemberColumns(expected != null ? (int) Math.min(expected + 1024, Integer.MAX_VALUE - 8) : 16);
+
+        jdbcTemplate.query("select id, name from team", rs -> {
+            loaded.putTeam(rs.getLong(1), rs.getString(2));
+        });
+        // 스냅샷을 보장하지 않는 DB 라면 team 이후에 생긴 회원의 팀은 모를 수 있다. 그런 row 가 있으면 실패로 보고 다시 적재한다.
+        AtomicBoolean consistent = new AtomicBoolean(true);
+        jdbcTemplate.query("select member_id, username, age, team_id from member order by member_id", rs -> {
+            long teamId = rs.getLong(4);
+            Long team = rs.wasNull() ? null : teamId;
+            if (!loaded.appendLoaded(rs.getLong(1), rs.getString(2), rs.getInt(3), team)) {
+                consistent.set(false);
+            }
+        });
+        loaded.finishLoad();
+        if (!consistent.get()) {
+            throw new IllegalStateException("team changed while loading members");
+        }
+        return loaded;
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에, 아니면 바로 반영한다. 한 트랜잭션의 변경은 모아서 한 번에 반영한다.
+     */
+    private void afterCommit(Predicate<MemberColumns> change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(change));
+            return;
+        }
+        pendingChanges().add(change);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Predicate<MemberColumns>> pendingChanges() {
+        Object bound = TransactionSynchronizationManager.getResource(SYNCHRONIZATION_KEY);
+        if (bound != null) {
+            return (List<Predicate<MemberColumns>>) bound;
+        }
+        List<Predicate<MemberColumns>> pending = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(SYNCHRONIZATION_KEY, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(pending);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SYNCHRONIZATION_KEY);
+            }
+        });
+        return pending;
+    }
+
+    private void apply(List<Predicate<MemberColumns>> changes) {
+        boolean consistent = true;
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.addAll(changes);
+            }
+            if (columns != null) {
+                for (Predicate<MemberColumns> change : changes) {
+                    consistent &= change.test(columns);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!consistent) {
+            // 모르는 팀을 가리키는 회원 등. 어긋난 상태로 검색하지 않도록 다시 적재한다.
+            invalidate();
+        }
+    }
+
+    // ---------------------------------------------------------------- 스냅샷
+
+    /**
+     * 스냅샷을 읽고 팀 전체, 스냅샷 이후 바뀌거나 추가된 회원을 DB 에서 다시 읽는다.
+     * 삭제는 흔적이 남지 않으므로 회원 수로 확인하고, 다르면 id 목록과 맞춰 본다.
+     * @return 스냅샷이 없거나 맞출 수 없으면 null
+     */
+    MemberColumns restore() {
+        Path path = snapshot.getPath();
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        MemberSnapshot restored;
+        try {
+            restored = MemberSnapshot.read(path);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("member search index snapshot unreadable, loading from the database. path={}", path, e);
+            return null;
+        }
+        MemberColumns loaded = restored.toColumns();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(1000);
+        Set<Long> teamIds = new HashSet<>();
+        jdbcTemplate.query("select id, name from team", rs -> {
+            teamIds.add(rs.getLong(1));
+            loaded.putTeam(rs.getLong(1), rs.getString(2));
+        });
+        for (long teamId : loaded.teamIdsInUse()) {
+            if (!teamIds.contains(teamId)) {
+                loaded.removeTeam(teamId);
+            }
+        }
+
+        // JDBC 로 직접 넣은 row 는 modified_at 이 없으므로 id 로도 찾는다.
+        Timestamp since = Timestamp.from(restored.watermark.minus(snapshot.getReplayOverlap()));
+        AtomicBoolean consistent = new AtomicBoolean(true);
+        AtomicLong changed = new AtomicLong();
+        jdbcTemplate.query("select member_id, username, age, team_id from member where modified_at >= ? or member_id > ?",
+                rs -> {
+                    long teamId = rs.getLong(4);
+                    Long team = rs.wasNull() ? null : teamId;
+                    consistent.compareAndSet(true, loaded.putMember(rs.getLong(1), rs.getString(2), rs.getInt(3), team));
+                    changed.incrementAndGet();
+                }, since, restored.maxMemberId);
+        if (!consistent.get()) {
+            return null;
+        }
+
+        Long count = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        int removed = 0;
+        if (count == null || count != loaded.size()) {
+            long[] ids = jdbcTemplate.queryForList("select member_id from member order by member_id", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+            removed = loaded.removeMissing(ids);
+            if (ids.length != loaded.size()) {
+                log.info("member search index snapshot out of date, loading from the database. snapshot={}, database={}",
+                        loaded.size(), ids.length);
+                return null;
+            }
+        }
+        log.info("member search index snapshot restored. watermark={}, replayed={}, removed={}",
+                restored.watermark, changed.get(), removed);
+        return loaded;
+    }
+
+    private void writeSnapshot() {
+        writeSnapshot(Instant.now());
+    }
+
+    /**
+     * 현재 컬럼을 복사해서 lock 밖에서 파일로 쓴다. 실패해도 다음 기동 때 DB 에서 읽으면 되므로 로그만 남긴다.
+     */
+    private void writeSnapshot(Instant watermark) {
+        Path path = snapshot.getPath();
+        if (path == null || !ready) {
+            return;
+        }
+        MemberSnapshot captured;
+        lock.readLock().lock();
+        try {
+            captured = MemberSnapshot.capture(columns, watermark);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long start = System.nanoTime();
+        try {
+            captured.write(path);
+            log.info("member search index snapshot written. members={}, elapsed={}ms",
+                    captured.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.warn("member search index snapshot write failed. path={}", path, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+        if (enabled) {
+            writeSnapshot();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * Member, Team 변경을 {@link MemberSearchIndex} 에 알린다. 실제 반영은 커밋 후에 한다.
+ * 팀 프록시의 getId() 는 프록시를 초기화하지 않는다.
+ */
+@RequiredArgsConstructor
+public class MemberSearchIndexListener {
+
+    private final MemberSearchIndex searchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Object entity) {
+        if (!searchIndex.isEnabled()) {
+            return;
+        }
+        if (entity instanceof Member member) {
+            Team team = member.getTeam();
+            searchIndex.memberSaved(member.getId(), member.getUsername(), member.getAge(), team != null ? team.getId() : null);
+        } else if (entity instanceof Team team) {
+            searchIndex.teamSaved(team.getId(), team.getName());
+        }
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        if (!searchIndex.isEnabled()) {
+            return;
+        }
+        if (entity instanceof Member member) {
+            searchIndex.memberRemoved(member.getId());
+        } else if (entity instanceof Team team) {
+            searchIndex.teamRemoved(team.getId());
+        }
+    }
+}
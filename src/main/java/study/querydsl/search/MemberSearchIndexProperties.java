@@ -0,0 +1,35 @@
+package study.querydsl.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 회원 검색 인메모리 인덱스 설정 (member.search.index.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.search.index")
+public class MemberSearchIndexProperties {
+
+    private boolean enabled = false;
+
+    private Snapshot snapshot = new Snapshot();
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        // 스냅샷 파일. 없으면 스냅샷을 쓰지 않고 기동할 때마다 DB 에서 전부 읽는다.
+        private Path path;
+
+        // 주기적으로 다시 쓴다. 종료할 때도 한 번 쓴다.
+        private Duration interval = Duration.ofMinutes(10);
+
+        // 스냅샷 시각보다 이만큼 앞선 변경부터 다시 읽는다. (스냅샷 시점에 커밋 중이던 트랜잭션, 서버 간 시계 차이)
+        private Duration replayOverlap = Duration.ofMinutes(5);
+    }
+}
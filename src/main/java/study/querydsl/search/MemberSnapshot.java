@@ -0,0 +1,343 @@
+package study.querydsl.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * {@link MemberColumns} 의 파일 스냅샷. 재기동 시 member join team 전체를 다시 읽지 않고 파일을 매핑해서 복원한다.
+ *
+ * 파일 구조 (big endian)
+ * - header (64 byte) : magic, version, watermark(epoch ms), maxMemberId, memberCount, teamCount,
+ *                      dictionaryCount, dictionaryBytes, body CRC32
+ * - dictionary       : int offsets[dictionaryCount + 1] + UTF-8 bytes. username / 팀 이름을 한 번씩만 담는다.
+ * - team             : long ids[teamCount], int nameRefs[teamCount]
+ * - member           : long ids[memberCount], int ages[], int usernameRefs[], int teamIndexes[] (id 오름차순)
+ *
+ * 문자열은 dictionary 번호(-1 은 null), 팀은 team 구역의 순번(-1 은 팀 없음)으로 저장하므로 모든 컬럼이 고정 폭이다.
+ * 구역마다 따로 매핑하므로 파일 전체가 2GB 를 넘어도 된다.
+ */
+final class MemberSnapshot {
+
+    static final int MAGIC = 0x4D534E50; // "MSNP"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int NULL_REF = -1;
+
+    final Instant watermark;
+    final long maxMemberId;
+    final long[] teamIds;
+    final String[] teamNames;
+    final long[] memberIds;
+    final int[] ages;
+    final String[] usernames;
+    final int[] teamIndexes;
+
+    private MemberSnapshot(Instant watermark, long maxMemberId, long[] teamIds, String[] teamNames,
+                           long[] memberIds, int[] ages, String[] usernames, int[] teamIndexes) {
+        this.watermark = watermark;
+        this.maxMemberId = maxMemberId;
+        this.teamIds = teamIds;
+        this.teamNames = teamNames;
+        this.memberIds = memberIds;
+        this.ages = ages;
+        this.usernames = usernames;
+        this.teamIndexes = teamIndexes;
+    }
+
+    int size() {
+        return memberIds.length;
+    }
+
+    /**
+     * 살아 있는 row 만 id 순서로 복사한다. 호출하는 쪽이 lock 을 잡고 있어야 하고, 파일 쓰기는 lock 밖에서 한다.
+     * @param watermark 이 시각 이후에 바뀐 회원은 복원할 때 DB 에서 다시 읽는다.
+     */
+    static MemberSnapshot capture(MemberColumns columns, Instant watermark) {
+        int[] rows = new int[columns.size()];
+        int n = 0;
+        for (int row = 0; row < columns.rowCount; row++) {
+            if (!columns.dead[row]) {
+                rows[n++] = row;
+            }
+        }
+        if (!columns.rowsInIdOrder) {
+            long[] ids = columns.ids;
+            MemberColumns.sort(rows, (a, b) -> Long.compare(ids[a], ids[b]));
+        }
+
+        // 지워진 팀 slot 은 빼고 순번을 다시 매긴다.
+        int[] teamIndexBySlot = new int[columns.teamCount];
+        List<Integer> liveSlots = new ArrayList<>();
+        Set<Long> liveTeamIds = new HashSet<>();
+        for (long teamId : columns.teamIdsInUse()) {
+            liveTeamIds.add(teamId);
+        }
+        for (int slot = 0; slot < columns.teamCount; slot++) {
+            teamIndexBySlot[slot] = NULL_REF;
+            if (liveTeamIds.contains(columns.teamIds[slot])) {
+                teamIndexBySlot[slot] = liveSlots.size();
+                liveSlots.add(slot);
+            }
+        }
+        long[] teamIds = new long[liveSlots.size()];
+        String[] teamNames = new String[liveSlots.size()];
+        for (int i = 0; i < liveSlots.size(); i++) {
+            teamIds[i] = columns.teamIds[liveSlots.get(i)];
+            teamNames[i] = columns.teamNames[liveSlots.get(i)];
+        }
+
+        long[] memberIds = new long[rows.length];
+        int[] ages = new int[rows.length];
+        String[] usernames = new String[rows.length];
+        int[] teamIndexes = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            memberIds[i] = columns.ids[row];
+            ages[i] = columns.ages[row];
+            usernames[i] = columns.usernames[row];
+            int slot = columns.teams[row];
+            teamIndexes[i] = slot == MemberColumns.NONE ? NULL_REF : teamIndexBySlot[slot];
+        }
+        return new MemberSnapshot(watermark, columns.maxId(), teamIds, teamNames, memberIds, ages, usernames, teamIndexes);
+    }
+
+    MemberColumns toColumns() {
+        MemberColumns columns = new MemberColumns(memberIds.length + 1024);
+        for (int i = 0; i < teamIds.length; i++) {
+            columns.putTeam(teamIds[i], teamNames[i]);
+        }
+        for (int i = 0; i < memberIds.length; i++) {
+            Long teamId = teamIndexes[i] == NULL_REF ? null : teamIds[teamIndexes[i]];
+            columns.appendLoaded(memberIds[i], usernames[i], ages[i], teamId);
+        }
+        columns.finishLoad();
+        return columns;
+    }
+
+    // ---------------------------------------------------------------- 쓰기
+
+    /**
+     * 임시 파일에 쓴 뒤 바꿔치기하므로 읽는 쪽은 항상 완전한 파일만 본다.
+     */
+    void write(Path path) throws IOException {
+        Map<String, Integer> refs = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        int[] teamNameRefs = new int[teamIds.length];
+        for (int i = 0; i < teamIds.length; i++) {
+            teamNameRefs[i] = ref(teamNames[i], refs, dictionary);
+        }
+        int[] usernameRefs = new int[memberIds.length];
+        for (int i = 0; i < memberIds.length; i++) {
+            usernameRefs[i] = ref(usernames[i], refs, dictionary);
+        }
+        long dictionaryBytes = 0;
+        for (byte[] bytes : dictionary) {
+            dictionaryBytes += bytes.length;
+        }
+        if (dictionaryBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("snapshot dictionary too large: " + dictionaryBytes + " bytes");
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = HEADER_BYTES;
+
+            MappedByteBuffer offsets = map(channel, position, 4L * (dictionary.size() + 1));
+            int offset = 0;
+            offsets.putInt(offset);
+            for (byte[] bytes : dictionary) {
+                offset += bytes.length;
+                offsets.putInt(offset);
+            }
+            position = finish(offsets, position, checksum);
+
+            MappedByteBuffer strings = map(channel, position, dictionaryBytes);
+            for (byte[] bytes : dictionary) {
+                strings.put(bytes);
+            }
+            position = finish(strings, position, checksum);
+
+            position = writeLongs(channel, position, teamIds, checksum);
+            position = writeInts(channel, position, teamNameRefs, checksum);
+            position = writeLongs(channel, position, memberIds, checksum);
+            position = writeInts(channel, position, ages, checksum);
+            position = writeInts(channel, position, usernameRefs, checksum);
+            writeInts(channel, position, teamIndexes, checksum);
+
+            MappedByteBuffer header = map(channel, 0, HEADER_BYTES);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(watermark.toEpochMilli())
+                    .putLong(maxMemberId)
+                    .putInt(memberIds.length)
+                    .putInt(teamIds.length)
+                    .putInt(dictionary.size())
+                    .putLong(dictionaryBytes)
+                    .putLong(checksum.getValue());
+            header.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int ref(String value, Map<String, Integer> refs, List<byte[]> dictionary) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        return refs.computeIfAbsent(value, key -> {
+            dictionary.add(key.getBytes(StandardCharsets.UTF_8));
+            return dictionary.size() - 1;
+        });
+    }
+
+    private static long writeLongs(FileChannel channel, long position, long[] values, CRC32 checksum) throws IOException {
+        MappedByteBuffer buffer = map(channel, position, 8L * values.length);
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.limit());
+        return finish(buffer, position, checksum);
+    }
+
+    private static long writeInts(FileChannel channel, long position, int[] values, CRC32 checksum) throws IOException {
+        MappedByteBuffer buffer = map(channel, position, 4L * values.length);
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.limit());
+        return finish(buffer, position, checksum);
+    }
+
+    // 다 쓴 구역을 디스크로 내리고 checksum 에 더한 뒤 다음 구역의 위치를 돌려준다.
+    private static long finish(MappedByteBuffer buffer, long position, CRC32 checksum) {
+        buffer.force();
+        checksum.update(buffer.flip());
+        return position + buffer.limit();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("snapshot section too large: " + size + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+    }
+
+    // ---------------------------------------------------------------- 읽기
+
+    /**
+     * @throws IllegalStateException 형식이나 버전이 다르거나 checksum 이 맞지 않을 때
+     */
+    static MemberSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalStateException("snapshot truncated: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int magic = header.getInt();
+            int version = header.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IllegalStateException("unsupported snapshot: magic=" + Integer.toHexString(magic) + ", version=" + version);
+            }
+            Instant watermark = Instant.ofEpochMilli(header.getLong());
+            long maxMemberId = header.getLong();
+            int memberCount = header.getInt();
+            int teamCount = header.getInt();
+            int dictionaryCount = header.getInt();
+            long dictionaryBytes = header.getLong();
+            long expectedChecksum = header.getLong();
+
+            long bodyBytes = 4L * (dictionaryCount + 1) + dictionaryBytes + 12L * teamCount + 20L * memberCount;
+            if (channel.size() != HEADER_BYTES + bodyBytes) {
+                throw new IllegalStateException("snapshot size mismatch: " + path);
+            }
+
+            CRC32 checksum = new CRC32();
+            long position = HEADER_BYTES;
+            ByteBuffer offsetBuffer = section(channel, position, 4L * (dictionaryCount + 1), checksum);
+            position += offsetBuffer.capacity();
+            ByteBuffer stringBuffer = section(channel, position, dictionaryBytes, checksum);
+            position += stringBuffer.capacity();
+
+            long[] teamIds = new long[teamCount];
+            position = readLongs(channel, position, teamIds, checksum);
+            int[] teamNameRefs = new int[teamCount];
+            position = readInts(channel, position, teamNameRefs, checksum);
+            long[] memberIds = new long[memberCount];
+            position = readLongs(channel, position, memberIds, checksum);
+            int[] ages = new int[memberCount];
+            position = readInts(channel, position, ages, checksum);
+            int[] usernameRefs = new int[memberCount];
+            position = readInts(channel, position, usernameRefs, checksum);
+            int[] teamIndexes = new int[memberCount];
+            readInts(channel, position, teamIndexes, checksum);
+
+            if (checksum.getValue() != expectedChecksum) {
+                throw new IllegalStateException("snapshot checksum mismatch: " + path);
+            }
+
+            // 같은 문자열은 String 인스턴스 하나를 공유한다.
+            String[] dictionary = new String[dictionaryCount];
+            byte[] bytes = new byte[0];
+            for (int i = 0; i < dictionaryCount; i++) {
+                int from = offsetBuffer.getInt(i * 4);
+                int length = offsetBuffer.getInt((i + 1) * 4) - from;
+                if (bytes.length < length) {
+                    bytes = new byte[length];
+                }
+                stringBuffer.get(from, bytes, 0, length);
+                dictionary[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            String[] teamNames = new String[teamCount];
+            for (int i = 0; i < teamCount; i++) {
+                teamNames[i] = lookup(dictionary, teamNameRefs[i]);
+            }
+            String[] usernames = new String[memberCount];
+            for (int i = 0; i < memberCount; i++) {
+                usernames[i] = lookup(dictionary, usernameRefs[i]);
+            }
+            return new MemberSnapshot(watermark, maxMemberId, teamIds, teamNames, memberIds, ages, usernames, teamIndexes);
+        }
+    }
+
+    private static String lookup(String[] dictionary, int ref) {
+        return ref == NULL_REF ? null : dictionary[ref];
+    }
+
+    private static ByteBuffer section(FileChannel channel, long position, long size, CRC32 checksum) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("snapshot section too large: " + size + " bytes");
+        }
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        checksum.update(buffer.duplicate());
+        return buffer;
+    }
+
+    private static long readLongs(FileChannel channel, long position, long[] values, CRC32 checksum) throws IOException {
+        ByteBuffer buffer = section(channel, position, 8L * values.length, checksum);
+        buffer.asLongBuffer().get(values);
+        return position + buffer.capacity();
+    }
+
+    private static long readInts(FileChannel channel, long position, int[] values, CRC32 checksum) throws IOException {
+        ByteBuffer buffer = section(channel, position, 4L * values.length, checksum);
+        buffer.asIntBuffer().get(values);
+        return position + buffer.capacity();
+    }
+}
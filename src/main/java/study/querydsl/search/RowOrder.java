@@ -0,0 +1,24 @@
+package study.querydsl.search;
+
+import org.springframework.data.domain.Sort;
+import study.querydsl.repository.support.MemberSortOrder;
+
+/**
+ * 인덱스가 지원하는 정렬. {@link MemberSortOrder} 와 같은 순서다. (DB 로 넘겨도 결과가 같아야 한다)
+ */
+enum RowOrder {
+
+    ID_ASC, ID_DESC, AGE_ASC, AGE_DESC;
+
+    boolean isDescending() {
+        return this == ID_DESC || this == AGE_DESC;
+    }
+
+    /**
+     * 정렬이 없으면 id 오름차순. 지원하지 않는 정렬이면 null (DB 로 넘긴다)
+     */
+    static RowOrder of(Sort sort) {
+        MemberSortOrder order = MemberSortOrder.of(sort);
+        return order != null ? valueOf(order.name()) : null;
+    }
+}
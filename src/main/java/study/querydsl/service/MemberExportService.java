@@ -0,0 +1,129 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberExportFormat;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 검색 결과를 한 건씩 읽어서 바로 써내려가는 export
+ * 결과를 List 로 모으지 않으므로 건수와 상관없이 힙 사용량이 일정하다.
+ */
+@Slf4j
+@Service
+public class MemberExportService {
+
+    private static final String CSV_HEADER = "memberId,username,age,teamId,teamName";
+
+    private final MemberRepository memberRepository;
+    private final EntityManager em;
+    private final ObjectWriter ndjsonWriter;
+    private final int fetchSize;
+
+    public MemberExportService(MemberRepository memberRepository,
+                               EntityManager em,
+                               ObjectMapper objectMapper,
+                               @Value("${member.export.fetch-size:500}") int fetchSize) {
+        this.memberRepository = memberRepository;
+        this.em = em;
+        // 매 row 마다 flush 하지 않고, 응답 스트림은 닫지 않는다.
+        this.ndjsonWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(MemberSearchCondition condition, MemberExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count;
+        try (Stream<MemberTeamDto> rows = memberRepository.streamSearch(condition, fetchSize)) {
+            count = format == MemberExportFormat.CSV
+                    ? writeCsv(rows.iterator(), writer)
+                    : writeNdjson(rows.iterator(), writer);
+        }
+        writer.flush();
+        log.info("member export finished. format={}, rows={}", format, count);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<MemberTeamDto> rows, Writer writer) throws IOException {
+        long count = 0;
+        try (SequenceWriter json = ndjsonWriter.writeValues(writer)) {
+            while (rows.hasNext()) {
+                json.write(rows.next());
+                afterRow(++count, writer);
+            }
+        }
+        if (count > 0) {
+            writer.write('\n');
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<MemberTeamDto> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = 0;
+        while (rows.hasNext()) {
+            MemberTeamDto row = rows.next();
+            writer.write(String.valueOf(row.getMemberId()));
+            writer.write(',');
+            writeCsvField(writer, row.getUsername());
+            writer.write(',');
+            writer.write(Integer.toString(row.getAge()));
+            writer.write(',');
+            if (row.getTeamId() != null) {
+                writer.write(String.valueOf(row.getTeamId()));
+            }
+            writer.write(',');
+            writeCsvField(writer, row.getTeamName());
+            writer.write('\n');
+            afterRow(++count, writer);
+        }
+        return count;
+    }
+
+    private void afterRow(long count, Writer writer) throws IOException {
+        if (count % fetchSize == 0) {
+            // 영속성 컨텍스트가 커지지 않도록 주기적으로 비우고, 버퍼도 내보낸다.
+            em.clear();
+            writer.flush();
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,166 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.dto.MemberImportRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * NDJSON 으로 들어오는 회원을 chunk 단위로 저장한다.
+ * - 본문은 한 줄씩 파싱하므로 전체를 메모리에 올리지 않는다.
+ * - insert 는 hibernate.jdbc.batch_size / order_inserts 설정으로 JDBC 배치가 된다.
+ * - chunk 마다 커밋하고 flush / clear 해서 영속성 컨텍스트 크기를 chunk 크기로 제한한다.
+ * - 팀은 이름별로 한번만 조회(또는 생성)하고 이후에는 id 로 프록시만 참조한다.
+ * - 중간에 멈추면 커밋된 건수와 멈춘 줄({@link MemberImportResult#getFailedLine()})을 돌려준다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+    private final int chunkSize;
+
+    public MemberImportService(EntityManager em,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${member.import.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowReader = objectMapper.readerFor(MemberImportRow.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 잘못된 줄을 만나거나 chunk 저장이 실패하면 거기서 멈추고, 그때까지 커밋한 건수와 멈춘 줄을 돌려준다.
+     * 잘못된 줄 앞의 row 는 저장하므로 failedLine 앞까지가 정확히 커밋된 범위다.
+     */
+    public MemberImportResult importNdjson(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        String error = null;
+
+        List<MemberImportRow> chunk = new ArrayList<>(chunkSize);
+        try {
+            try (MappingIterator<MemberImportRow> rows = rowReader.readValues(in)) {
+                while (rows.hasNextValue()) {
+                    MemberImportRow row = rows.nextValue();
+                    if (!hasText(row.getUsername())) {
+                        error = "username 이 없습니다.";
+                        break;
+                    }
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        run.commit(chunk);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                error = "JSON 을 읽을 수 없습니다. " + e.getOriginalMessage();
+            }
+            if (!chunk.isEmpty()) {
+                run.commit(chunk);
+            }
+        } catch (RuntimeException e) {
+            // 실패한 chunk 만 롤백되고 앞 chunk 들은 이미 커밋됐다.
+            log.warn("member import chunk failed after {} rows", run.imported, e);
+            error = "저장하지 못했습니다. " + e.getMessage();
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Long failedLine = error != null ? run.imported + 1 : null;
+        if (failedLine != null) {
+            log.warn("member import stopped. rows={}, failedLine={}, error={}", run.imported, failedLine, error);
+        } else {
+            log.info("member import finished. rows={}, teamsCreated={}, chunks={}, elapsed={}ms",
+                    run.imported, run.teamsCreated, run.chunks, elapsed);
+        }
+        return new MemberImportResult(run.imported, run.teamsCreated, run.chunks, elapsed, failedLine, error);
+    }
+
+    private class ImportRun {
+
+        private final Map<String, Long> teamIds = new HashMap<>();
+        private long imported;
+        private int teamsCreated;
+        private int chunks;
+
+        void commit(List<MemberImportRow> chunk) {
+            teamsCreated += insertChunk(chunk, teamIds);
+            imported += chunk.size();
+            chunks++;
+            chunk.clear();
+        }
+    }
+
+    private int insertChunk(List<MemberImportRow> chunk, Map<String, Long> teamIds) {
+        Integer created = transactionTemplate.execute(status -> {
+            int newTeams = resolveTeams(chunk, teamIds);
+            for (MemberImportRow row : chunk) {
+                Member member = new Member(row.getUsername(), row.getAge());
+                if (hasText(row.getTeamName())) {
+                    // changeTeam() 은 team.members 컬렉션을 초기화하므로 프록시만 연결한다.
+                    member.setTeam(em.getReference(Team.class, teamIds.get(row.getTeamName())));
+                }
+                em.persist(member);
+            }
+            em.flush();
+            em.clear();
+            return newTeams;
+        });
+        return created == null ? 0 : created;
+    }
+
+    /**
+     * chunk 에 처음 등장한 팀 이름만 한 번의 쿼리로 조회하고, 없으면 생성한다.
+     */
+    private int resolveTeams(List<MemberImportRow> chunk, Map<String, Long> teamIds) {
+        Set<String> unknown = new LinkedHashSet<>();
+        for (MemberImportRow row : chunk) {
+            if (hasText(row.getTeamName()) && !teamIds.containsKey(row.getTeamName())) {
+                unknown.add(row.getTeamName());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> existing = em.createQuery(
+                        "select t.name, min(t.id) from Team t where t.name in :names group by t.name", Object[].class)
+                .setParameter("names", unknown)
+                .getResultList();
+        for (Object[] row : existing) {
+            teamIds.put((String) row[0], (Long) row[1]);
+            unknown.remove((String) row[0]);
+        }
+
+        for (String teamName : unknown) {
+            Team team = new Team(teamName);
+            em.persist(team);
+            teamIds.put(teamName, team.getId());
+        }
+        return unknown.size();
+    }
+}
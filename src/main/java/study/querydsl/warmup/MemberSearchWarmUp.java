@@ -0,0 +1,180 @@
+package study.querydsl.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchResultCache;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberCursorSort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.monitoring.SearchShapeStats;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.MemberSearchShape;
+import study.querydsl.repository.support.PaginationProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 기동 직후 첫 요청들이 HQL 파싱, Q 타입 초기화, 콜드 JIT 비용을 내지 않도록
+ * 검색 조건 16가지 shape 마다 /v1 ~ /v4 가 쓰는 검색 메서드를 미리 실행한다. (member.search.warm-up.*)
+ *
+ * 스프링 부트는 ApplicationRunner 가 모두 끝난 뒤에 ReadinessState.ACCEPTING_TRAFFIC 을 발행하므로,
+ * 여기서 동기로 돌리는 동안 /actuator/health/readiness 는 OUT_OF_SERVICE 다.
+ * 인메모리 인덱스({@code MemberSearchIndex})는 ApplicationReadyEvent 이후에 올라오므로 워밍업은 항상 DB 로 간다.
+ *
+ * 캐시에 걸리면 DB 까지 가지 않으므로 호출마다 결과 / count 캐시를 비우고,
+ * 끝나면 워밍업 호출이 남긴 shape 통계와 리포지토리 메트릭(p99 에 섞이지 않도록)을 지운다.
+ */
+@Slf4j
+@Component
+public class MemberSearchWarmUp implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 20;
+    private static final String[] REPOSITORY_METERS = {"member.repository.query", "member.repository.result.size"};
+
+    private final MemberSearchWarmUpProperties properties;
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final MemberCountCache countCache;
+    private final MemberSearchResultCache resultCache;
+    private final SearchShapeStats shapeStats;
+    private final MeterRegistry meterRegistry;
+    private final Pageable firstPage = PageRequest.of(0, PAGE_SIZE);
+    // searchPageComplex 의 deferred join 경로 (id 페이징 + 조회)
+    private final Pageable deepPage;
+
+    public MemberSearchWarmUp(MemberSearchWarmUpProperties properties, MemberJpaRepository memberJpaRepository,
+                              MemberRepository memberRepository, MemberCountCache countCache,
+                              MemberSearchResultCache resultCache, SearchShapeStats shapeStats,
+                              MeterRegistry meterRegistry, PaginationProperties paginationProperties) {
+        this.properties = properties;
+        this.memberJpaRepository = memberJpaRepository;
+        this.memberRepository = memberRepository;
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.shapeStats = shapeStats;
+        this.meterRegistry = meterRegistry;
+        long deepOffset = Math.max(paginationProperties.getDeferredJoinMinOffset(), PAGE_SIZE);
+        this.deepPage = PageRequest.of((int) Math.min((deepOffset + PAGE_SIZE - 1) / PAGE_SIZE, Integer.MAX_VALUE),
+                PAGE_SIZE);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * @return 실행한 검색 메서드 호출 수
+     */
+    public int warmUp() {
+        long start = System.nanoTime();
+        Run run = new Run(start + properties.getTimeout().toNanos());
+        int iteration = 0;
+        try {
+            for (; iteration < properties.getIterations(); iteration++) {
+                for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+                    warmUp(run, condition(shape, iteration));
+                }
+            }
+        } catch (TimedOut e) {
+            log.warn("member search warm-up timed out at iteration {} of {}. calls={}",
+                    iteration, properties.getIterations(), run.calls);
+        } catch (RuntimeException e) {
+            // 워밍업 실패로 기동을 막지는 않는다. DB 상태는 health 의 db 항목이 따로 본다.
+            log.warn("member search warm-up failed at iteration {}", iteration, e);
+        } finally {
+            clearTraces();
+        }
+        log.info("member search warm-up finished. iterations={}, calls={}, elapsed={}ms", iteration, run.calls,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return run.calls;
+    }
+
+    private void warmUp(Run run, MemberSearchCondition condition) {
+        run.execute(() -> memberJpaRepository.search(condition));
+        run.execute(() -> memberRepository.search(condition));
+        run.execute(() -> memberRepository.searchPageSimple(condition, firstPage));
+        run.execute(() -> memberRepository.searchPageComplex(condition, firstPage));
+        run.execute(() -> memberRepository.searchPageComplex(condition, deepPage));
+        run.execute(() -> memberRepository.searchSlice(condition, firstPage));
+        for (MemberCursorSort sort : MemberCursorSort.values()) {
+            MemberCursorPage page = run.execute(() -> memberRepository.searchByCursor(condition, sort, null, PAGE_SIZE));
+            // 두 번째 페이지는 커서 seek 조건이 붙은 다른 쿼리다.
+            if (page.getNextCursor() != null) {
+                run.execute(() -> memberRepository.searchByCursor(condition, sort, page.getNextCursor(), PAGE_SIZE));
+            }
+        }
+    }
+
+    private void clearTraces() {
+        resultCache.invalidateAll();
+        countCache.invalidateAll();
+        shapeStats.reset();
+        for (String name : REPOSITORY_METERS) {
+            meterRegistry.find(name).meters().forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * shape 의 조건만 채운다. 값은 회차마다 바꾸고, 샘플 데이터(member.dataset)와 겹치게 골라 결과 매핑까지 돌게 한다.
+     * ageGoe <= ageLoe 로 맞춰서 빈 결과로 바로 끝나지 않게 한다. 홀수 회차는 ageGoe == ageLoe (age = ? 쿼리)
+     */
+    static MemberSearchCondition condition(int shape, int iteration) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & MemberSearchShape.USERNAME) != 0) {
+            condition.setUsername("member" + iteration);
+        }
+        if ((shape & MemberSearchShape.TEAM_NAME) != 0) {
+            condition.setTeamName(iteration % 2 == 0 ? "teamA" : "teamB");
+        }
+        if ((shape & MemberSearchShape.AGE_GOE) != 0) {
+            condition.setAgeGoe(iteration % 50);
+        }
+        if ((shape & MemberSearchShape.AGE_LOE) != 0) {
+            boolean point = iteration % 2 == 1 && (shape & MemberSearchShape.AGE_GOE) != 0;
+            condition.setAgeLoe(point ? iteration % 50 : 50 + iteration % 50);
+        }
+        return condition;
+    }
+
+    /**
+     * 한 번의 워밍업. 검색 메서드 하나가 오래 걸려도 timeout 을 크게 넘지 않도록 호출마다 마감 시각을 확인한다.
+     */
+    private final class Run {
+
+        private final long deadline;
+        private int calls;
+
+        Run(long deadline) {
+            this.deadline = deadline;
+        }
+
+        <T> T execute(Supplier<T> search) {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TimedOut();
+            }
+            T result = search.get();
+            calls++;
+            resultCache.invalidateAll();
+            countCache.invalidateAll();
+            return result;
+        }
+    }
+
+    private static final class TimedOut extends RuntimeException {
+
+        TimedOut() {
+            super(null, null, false, false);
+        }
+    }
+}
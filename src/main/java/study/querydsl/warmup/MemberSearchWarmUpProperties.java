@@ -0,0 +1,24 @@
+package study.querydsl.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 기동 시 회원 검색 워밍업 설정 (member.search.warm-up.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.search.warm-up")
+public class MemberSearchWarmUpProperties {
+
+    private boolean enabled = true;
+
+    // shape(16가지)마다 검색 메서드를 몇 번씩 돌릴지. 조건 값은 회차마다 바꾼다.
+    private int iterations = 10;
+
+    // 넘으면 남은 회차를 건너뛰고 ready 가 된다. (DB 가 느려도 배포가 멈추지 않도록)
+    private Duration timeout = Duration.ofSeconds(30);
+}
@@ -28,6 +28,7 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.projection.GeneratedProjections;
 import study.querydsl.repository.MemberJpaRepository;
 
 import java.util.List;
@@ -560,6 +561,44 @@ public class QuerydslBasicTest {
         }
     }
 
+    @Test
+    public void findDtoByGeneratedProjection(){
+        // 리플렉션 기반 Projections 와 같은 결과
+        assertThat(queryFactory
+                .select(GeneratedProjections.bean(MemberDto.class, member.username, member.age))
+                .from(member).orderBy(member.id.asc()).fetch())
+                .isEqualTo(queryFactory
+                        .select(Projections.bean(MemberDto.class, member.username, member.age))
+                        .from(member).orderBy(member.id.asc()).fetch());
+
+        assertThat(queryFactory
+                .select(GeneratedProjections.fields(UserDto.class, member.username.as("name"), member.age))
+                .from(member).orderBy(member.id.asc()).fetch())
+                .isEqualTo(queryFactory
+                        .select(Projections.fields(UserDto.class, member.username.as("name"), member.age))
+                        .from(member).orderBy(member.id.asc()).fetch());
+
+        assertThat(queryFactory
+                .select(GeneratedProjections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name))
+                .from(member).leftJoin(member.team, team).orderBy(member.id.asc()).fetch())
+                .isEqualTo(queryFactory
+                        .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                        .from(member).leftJoin(member.team, team).orderBy(member.id.asc()).fetch());
+    }
+
+    @Test
+    public void generatedConstructorKeepsRow(){
+        // primitive 자리의 null 은 기본값으로 바꿔 넘기지만, 넘겨받은 row 는 건드리지 않는다.
+        Object[] row = {1L, "member1", null, null, null};
+
+        MemberTeamDto dto = GeneratedProjections.constructor(MemberTeamDto.class,
+                member.id, member.username, member.age, team.id, team.name).newInstance(row);
+
+        assertThat(dto.getAge()).isZero();
+        assertThat(row).containsExactly(1L, "member1", null, null, null);
+    }
+
     @Test
     public void dynamicQuery_BooleanBuilder(){
         String usernameParam = "member1";
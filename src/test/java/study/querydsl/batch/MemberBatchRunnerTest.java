@@ -0,0 +1,120 @@
+package study.querydsl.batch;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.BatchJob;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// chunk 마다 커밋하므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+@SpringBootTest(properties = {"member.batch.range-size=2", "member.batch.parallelism=3"})
+class MemberBatchRunnerTest {
+
+    private static final String JOB = "test-batch";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberBatchRunner batchRunner;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 1; i <= 5; i++) {
+                em.persist(new Member("batch" + i, i * 10));
+            }
+        });
+    }
+
+    @AfterEach
+    public void cleanUp(){
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from BatchJobChunk c where c.jobName = :jobName")
+                    .setParameter("jobName", JOB).executeUpdate();
+            em.createQuery("delete from BatchJob j where j.name = :jobName")
+                    .setParameter("jobName", JOB).executeUpdate();
+            em.createQuery("delete from Member m where m.username like 'batch%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void 모든_chunk_를_worker_트랜잭션에서_처리한다(){
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        BatchReport report = batchRunner.run(JOB, (em, members) -> {
+            threads.add(Thread.currentThread().getName());
+            agePlus(members);
+        });
+
+        assertThat(report.isCompleted()).isTrue();
+        assertThat(report.isResumed()).isFalse();
+        assertThat(report.getRows()).isEqualTo(memberCount());
+        assertThat(report.getChunks()).allMatch(chunk -> chunk.getRows() <= 2);
+        assertThat(threads).doesNotContain(Thread.currentThread().getName());
+        assertThat(ages()).containsExactly(11, 21, 31, 41, 51);
+        assertThat(tx.execute(status -> em.find(BatchJob.class, JOB).isCompleted())).isTrue();
+    }
+
+    @Test
+    public void 실패한_chunk_만_이어서_처리한다(){
+        BatchReport first = batchRunner.run(JOB, (em, members) -> {
+            agePlus(members);
+            if (members.stream().anyMatch(m -> m.getUsername().equals("batch3"))) {
+                throw new IllegalStateException("fail");
+            }
+        });
+        assertThat(first.getFailed()).isEqualTo(1);
+        assertThat(first.isCompleted()).isFalse();
+        // 실패한 chunk 는 롤백된다.
+        assertThat(ages()).contains(30);
+
+        BatchReport second = batchRunner.run(JOB, (em, members) -> agePlus(members));
+
+        assertThat(second.isResumed()).isTrue();
+        assertThat(second.getChunks()).hasSize(1);
+        assertThat(second.getSkipped()).isEqualTo(first.getChunks().size());
+        assertThat(second.isCompleted()).isTrue();
+        assertThat(ages()).containsExactly(11, 21, 31, 41, 51);
+    }
+
+    @Test
+    public void 트랜잭션_안에서는_쓸_수_없다(){
+        assertThatThrownBy(() -> tx.executeWithoutResult(status ->
+                batchRunner.run(JOB, (em, members) -> {})))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // 다른 테스트가 쓰는 샘플 회원은 건드리지 않는다.
+    private static void agePlus(List<Member> members) {
+        members.stream()
+                .filter(m -> m.getUsername().startsWith("batch"))
+                .forEach(m -> m.setAge(m.getAge() + 1));
+    }
+
+    private long memberCount() {
+        return em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+    }
+
+    private List<Integer> ages() {
+        return em.createQuery("select m.age from Member m where m.username like 'batch%' order by m.age", Integer.class)
+                .getResultList();
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    MemberCountCache countCache = new MemberCountCache(Duration.ofMinutes(1), 100);
+
+    @Test
+    public void sameConditionCountsOnce(){
+        AtomicInteger calls = new AtomicInteger();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        // 공백만 다른 조건은 같은 키로 정규화된다. (리포지토리도 trim 한 값으로 조회하므로 결과가 같은 검색이다)
+        MemberSearchCondition sameCondition = new MemberSearchCondition();
+        sameCondition.setTeamName(" teamA ");
+        sameCondition.setUsername("");
+
+        long first = countCache.getOrCount(condition, () -> calls.incrementAndGet() * 10L);
+        long second = countCache.getOrCount(sameCondition, () -> calls.incrementAndGet() * 10L);
+
+        assertThat(first).isEqualTo(10L);
+        assertThat(second).isEqualTo(10L);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateAll(){
+        AtomicInteger calls = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        countCache.getOrCount(condition, calls::incrementAndGet);
+        countCache.invalidateAll();
+        long recounted = countCache.getOrCount(condition, calls::incrementAndGet);
+
+        assertThat(recounted).isEqualTo(2L);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,165 @@
+package study.querydsl.cache;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 캐시는 읽기 전용 트랜잭션에서만 채워지므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+@SpringBootTest(properties = {"member.search.result-cache.enabled=true", "member.search.result-cache.max-tracked-changes=5"})
+class MemberSearchResultCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchResultCache resultCache;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("cacheTeamA");
+            Team teamB = new Team("cacheTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("cache1", 10, teamA));
+            em.persist(new Member("cache2", 20, teamB));
+        });
+        resultCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void cleanUp(){
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'cache%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'cacheTeam%'").executeUpdate();
+        });
+        resultCache.invalidateAll();
+    }
+
+    @Test
+    public void cachedUntilTeamRename(){
+        List<MemberTeamDto> teamA = memberRepository.search(teamName("cacheTeamA"));
+        List<MemberTeamDto> teamB = memberRepository.search(teamName("cacheTeamB"));
+        List<MemberTeamDto> cache2 = memberRepository.search(username("cache2"));
+
+        assertThat(teamA).extracting("username").containsExactly("cache1");
+        assertThat(memberRepository.search(teamName("cacheTeamA"))).isSameAs(teamA);
+
+        tx.executeWithoutResult(status -> em.createQuery("select t from Team t where t.name = 'cacheTeamA'", Team.class)
+                .getSingleResult()
+                .setName("cacheTeamC"));
+
+        // 바뀐 팀 이름으로 거른 항목만 지워진다.
+        assertThat(memberRepository.search(teamName("cacheTeamA"))).isEmpty();
+        assertThat(memberRepository.search(teamName("cacheTeamC"))).extracting("username").containsExactly("cache1");
+        assertThat(memberRepository.search(teamName("cacheTeamB"))).isSameAs(teamB);
+        assertThat(memberRepository.search(username("cache2"))).isSameAs(cache2);
+    }
+
+    @Test
+    public void memberUpdateEvictsOldAndNewMatches(){
+        MemberSearchCondition young = new MemberSearchCondition();
+        young.setUsername("cache1");
+        young.setAgeLoe(15);
+        MemberSearchCondition old = new MemberSearchCondition();
+        old.setUsername("cache1");
+        old.setAgeGoe(15);
+        List<MemberTeamDto> teamB = memberRepository.search(teamName("cacheTeamB"));
+
+        assertThat(memberRepository.search(young)).hasSize(1);
+        assertThat(memberRepository.search(old)).isEmpty();
+
+        // 팀을 함께 로딩해야 팀 이름으로 걸러진 다른 항목을 건드리지 않는다. (프록시면 모든 팀 조건을 지운다)
+        tx.executeWithoutResult(status -> em.createQuery("select m from Member m join fetch m.team where m.username = 'cache1'", Member.class)
+                .getSingleResult()
+                .setAge(30));
+
+        assertThat(memberRepository.search(young)).isEmpty();
+        assertThat(memberRepository.search(old)).hasSize(1);
+        assertThat(memberRepository.search(teamName("cacheTeamB"))).isSameAs(teamB);
+    }
+
+    @Test
+    public void paddedConditionSharesResult(){
+        // 키는 trim 한 조건이고, 조회도 trim 한 값으로 하므로 같은 결과를 공유해도 된다.
+        List<MemberTeamDto> padded = memberRepository.search(teamName(" cacheTeamA "));
+
+        assertThat(padded).extracting("username").containsExactly("cache1");
+        assertThat(memberRepository.search(teamName("cacheTeamA"))).isSameAs(padded);
+    }
+
+    @Test
+    public void insertEvictsOnlyMatchingConditions(){
+        List<MemberTeamDto> teamA = memberRepository.search(teamName("cacheTeamA"));
+        List<MemberTeamDto> teamB = memberRepository.search(teamName("cacheTeamB"));
+
+        tx.executeWithoutResult(status -> {
+            Team team = em.createQuery("select t from Team t where t.name = 'cacheTeamA'", Team.class).getSingleResult();
+            em.persist(new Member("cache3", 30, team));
+        });
+
+        assertThat(memberRepository.search(teamName("cacheTeamA"))).isNotSameAs(teamA)
+                .extracting("username").containsExactlyInAnyOrder("cache1", "cache3");
+        assertThat(memberRepository.search(teamName("cacheTeamB"))).isSameAs(teamB);
+    }
+
+    @Test
+    public void manyChangesFlushEverythingOnce(){
+        List<MemberTeamDto> teamB = memberRepository.search(teamName("cacheTeamB"));
+
+        // max-tracked-changes(5) 를 넘으면 골라내지 않고 전체를 비운다.
+        tx.executeWithoutResult(status -> {
+            Team team = em.createQuery("select t from Team t where t.name = 'cacheTeamA'", Team.class).getSingleResult();
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("cacheMany" + i, i, team));
+            }
+        });
+
+        assertThat(resultCache.size()).isZero();
+        assertThat(memberRepository.search(teamName("cacheTeamB"))).isNotSameAs(teamB);
+    }
+
+    @Test
+    public void bulkUpdateFlushesEverything(){
+        List<MemberTeamDto> teamB = memberRepository.search(teamName("cacheTeamB"));
+
+        tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(Integer.MAX_VALUE));
+
+        assertThat(memberRepository.search(teamName("cacheTeamB"))).isNotSameAs(teamB);
+    }
+
+    private static MemberSearchCondition teamName(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+
+    private static MemberSearchCondition username(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        return condition;
+    }
+}
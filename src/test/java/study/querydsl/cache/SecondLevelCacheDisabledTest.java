@@ -0,0 +1,49 @@
+package study.querydsl.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 기본값(member.second-level-cache.enabled=false)이면 @Cacheable 엔티티도 2차 캐시에 올라가지 않는다.
+@SpringBootTest
+class SecondLevelCacheDisabledTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Long memberId;
+
+    @AfterEach
+    public void cleanUp(){
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.id = :id").setParameter("id", memberId).executeUpdate());
+    }
+
+    @Test
+    public void memberIsNotCachedWhenDisabled(){
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        memberId = tx.execute(status -> {
+            Member member = new Member("uncachedMember", 10);
+            em.persist(member);
+            return member.getId();
+        });
+
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId));
+
+        assertThat(emf.getCache().contains(Member.class, memberId)).isFalse();
+    }
+}
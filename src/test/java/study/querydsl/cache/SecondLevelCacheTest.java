@@ -0,0 +1,56 @@
+package study.querydsl.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "member.second-level-cache.enabled=true")
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Long teamId;
+
+    @AfterEach
+    public void cleanUp(){
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("delete from Team t where t.id = :id").setParameter("id", teamId).executeUpdate());
+    }
+
+    @Test
+    public void teamIsCachedAcrossPersistenceContexts(){
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        teamId = tx.execute(status -> {
+            Team team = new Team("cachedTeam");
+            em.persist(team);
+            return team.getId();
+        });
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // 트랜잭션(영속성 컨텍스트)이 달라도 두 번째부터는 DB 를 거치지 않는다.
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId));
+
+        assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetGeneratorTest {
+
+    @Test
+    public void uniformTeams(){
+        double[] cdf = DatasetGenerator.zipfCdf(4, 0.0);
+
+        assertThat(cdf).containsExactly(0.25, 0.5, 0.75, 1.0);
+    }
+
+    @Test
+    public void skewedTeams(){
+        int[] sizes = new int[10];
+        double[] cdf = DatasetGenerator.zipfCdf(sizes.length, 1.2);
+        SplittableRandom random = new SplittableRandom(42L);
+
+        for (int i = 0; i < 100_000; i++) {
+            sizes[DatasetGenerator.pickTeam(cdf, random)]++;
+        }
+
+        // 앞쪽 팀일수록 크다.
+        for (int k = 1; k < sizes.length; k++) {
+            assertThat(sizes[k - 1]).isGreaterThan(sizes[k]);
+        }
+    }
+
+    @Test
+    public void sameSeedSameTeams(){
+        double[] cdf = DatasetGenerator.zipfCdf(100, 1.0);
+        SplittableRandom first = new SplittableRandom(7L);
+        SplittableRandom second = new SplittableRandom(7L);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(DatasetGenerator.pickTeam(cdf, first)).isEqualTo(DatasetGenerator.pickTeam(cdf, second));
+        }
+    }
+
+    @Test
+    public void teamName(){
+        assertThat(DatasetGenerator.teamName(0)).isEqualTo("teamA");
+        assertThat(DatasetGenerator.teamName(1)).isEqualTo("teamB");
+        assertThat(DatasetGenerator.teamName(26)).isEqualTo("team26");
+    }
+}
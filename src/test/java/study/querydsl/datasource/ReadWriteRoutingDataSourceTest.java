@@ -0,0 +1,162 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 별도의 인메모리 H2 두 개를 primary / replica 로 쓴다.
+class ReadWriteRoutingDataSourceTest {
+
+    HikariDataSource primary = h2("routing-primary");
+    HikariDataSource replica = h2("routing-replica");
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    ReplicaLagMonitor lagMonitor;
+    ReadWriteRoutingDataSource routing;
+    DataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void before() {
+        new JdbcTemplate(primary).execute("create table node(name varchar(20))");
+        new JdbcTemplate(primary).update("insert into node values ('primary')");
+        new JdbcTemplate(replica).execute("create table node(name varchar(20))");
+        new JdbcTemplate(replica).update("insert into node values ('replica')");
+        new JdbcTemplate(replica).execute("create table replica_status(lag_seconds double)");
+        new JdbcTemplate(replica).update("insert into replica_status values (0)");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        lagMonitor = new ReplicaLagMonitor(replicas, "select lag_seconds from replica_status", Duration.ofSeconds(5));
+        routing = new ReadWriteRoutingDataSource(primary, replicas, lagMonitor, meterRegistry);
+
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        // 풀이 닫히면 인메모리 DB 도 사라진다.
+        routing.close();
+    }
+
+    @Test
+    public void readOnlyGoesToReplica() {
+        lagMonitor.refresh();
+
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+        assertThat(readWrite.execute(status -> node())).isEqualTo("primary");
+        // 트랜잭션 밖은 primary
+        assertThat(node()).isEqualTo("primary");
+
+        assertThat(meterRegistry.get("member.datasource.route").tag("route", "replica-1").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void primaryUntilFirstLagCheck() {
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    public void laggingReplicaFallsBackToPrimary() {
+        new JdbcTemplate(replica).update("update replica_status set lag_seconds = 60");
+        lagMonitor.refresh();
+
+        assertThat(lagMonitor.isAvailable("replica-1")).isFalse();
+        assertThat(lagMonitor.lagSeconds("replica-1")).isEqualTo(60.0);
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+
+        // 따라잡으면 다시 replica
+        new JdbcTemplate(replica).update("update replica_status set lag_seconds = 1");
+        lagMonitor.refresh();
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    public void unreachableReplicaFallsBackToPrimary() {
+        lagMonitor.refresh();
+        replica.close();
+
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+        assertThat(lagMonitor.isAvailable("replica-1")).isFalse();
+    }
+
+    @Test
+    public void openEntityManagerReroutesEveryTransaction() {
+        lagMonitor.refresh();
+        EntityManagerFactory emf = entityManagerFactory();
+        TransactionTemplate jpaReadWrite = new TransactionTemplate(new JpaTransactionManager(emf));
+        TransactionTemplate jpaReadOnly = new TransactionTemplate(new JpaTransactionManager(emf));
+        jpaReadOnly.setReadOnly(true);
+
+        // open-in-view 처럼 요청 동안 EntityManager 하나를 스레드에 묶어 둔다.
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            assertThat(jpaReadOnly.execute(status -> node(em))).isEqualTo("replica");
+            assertThat(jpaReadWrite.execute(status -> node(em))).isEqualTo("primary");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+            emf.close();
+        }
+    }
+
+    // 엔티티 없이 RoutingDataSourceConfig 와 같은 커넥션 처리 방식만 준다.
+    private EntityManagerFactory entityManagerFactory() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(getClass().getPackageName());
+        factory.setJpaPropertyMap(Map.of(
+                AvailableSettings.CONNECTION_HANDLING, RoutingDataSourceConfig.CONNECTION_HANDLING,
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, false));
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    private static String node(EntityManager em) {
+        return (String) em.createNativeQuery("select name from node").getSingleResult();
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID());
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
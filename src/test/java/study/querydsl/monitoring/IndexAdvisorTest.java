@@ -0,0 +1,72 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class IndexAdvisorTest {
+
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Autowired
+    SearchShapeStats shapeStats;
+
+    @BeforeEach
+    public void before(){
+        shapeStats.reset();
+    }
+
+    @Test
+    public void usernameShapeUsesDeclaredIndex(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setAgeGoe(10);
+        shapeStats.record(condition);
+        shapeStats.record(condition);
+
+        IndexAdvice advice = indexAdvisor.advise();
+
+        assertThat(advice.getIndexes()).containsKeys("IDX_MEMBER_USERNAME_AGE", "IDX_MEMBER_TEAM_AGE", "IDX_MEMBER_AGE", "IDX_TEAM_NAME");
+        assertThat(advice.getShapes()).hasSize(1);
+        IndexAdvice.ShapePlan plan = advice.getShapes().get(0);
+        assertThat(plan.getShape()).isEqualTo("username+ageGoe");
+        assertThat(plan.getExecutions()).isEqualTo(2);
+        assertThat(plan.getIndexesUsed()).contains("IDX_MEMBER_USERNAME_AGE");
+        assertThat(plan.getTableScans()).doesNotContain("MEMBER");
+        assertThat(advice.getMissingIndexes()).isEmpty();
+        // team 이름으로 검색한 적이 없으니 team 쪽 인덱스는 쓰이지 않았다.
+        assertThat(advice.getUnusedIndexes()).contains("IDX_TEAM_NAME").doesNotContain("IDX_MEMBER_USERNAME_AGE");
+    }
+
+    @Test
+    public void noShapesNoAdvice(){
+        IndexAdvice advice = indexAdvisor.advise();
+
+        assertThat(advice.getShapes()).isEmpty();
+        assertThat(advice.getUnusedIndexes()).isEmpty();
+    }
+
+    @Test
+    public void recommendedColumnsPutEqualityFirst(){
+        int shape = MemberSearchShape.TEAM_NAME | MemberSearchShape.AGE_LOE;
+
+        assertThat(IndexAdvisor.recommendedColumns(shape, "MEMBER")).containsExactly("TEAM_ID", "AGE");
+        assertThat(IndexAdvisor.recommendedColumns(shape, "TEAM")).containsExactly("NAME");
+        assertThat(IndexAdvisor.recommendedColumns(0, "MEMBER")).isEmpty();
+    }
+
+    @Test
+    public void sqlEscapesSampleValues(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("o'neil");
+
+        assertThat(IndexAdvisor.sql(MemberSearchShape.USERNAME, condition)).endsWith("where m.username = 'o''neil'");
+    }
+}
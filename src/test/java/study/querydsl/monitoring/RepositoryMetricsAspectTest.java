@@ -0,0 +1,63 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void timerTaggedWithShape(){
+        Team team = new Team("teamA");
+        em.persist(team);
+        em.persist(new Member("member1",10,team));
+        em.persist(new Member("member2",20,team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(15);
+
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        memberJpaRepository.search(condition);
+
+        Timer timer = meterRegistry.find("member.repository.query")
+                .tag("repository", "MemberRepositoryImpl")
+                .tag("method", "searchPageComplex")
+                .tag("shape", "teamName+ageGoe")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+
+        assertThat(meterRegistry.find("member.repository.result.size")
+                .tag("repository", "MemberJpaRepository")
+                .tag("method", "search")
+                .summary()
+                .max()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.monitoring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// threshold 0 이면 모든 statement 가 기록된다.
+@SpringBootTest(properties = {"member.jdbc.slow-query.threshold=0ms", "member.jdbc.slow-query.capacity=3"})
+@Transactional
+class SlowQueryListenerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @Test
+    public void recordsPlan(){
+        em.persist(new Member("member1",10));
+        em.flush();
+        slowQueryLog.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        memberRepository.search(condition);
+
+        List<SlowQuery> queries = slowQueryLog.snapshot();
+        assertThat(queries).isNotEmpty();
+        SlowQuery latest = queries.get(0);
+        assertThat(latest.getSqlWithValues()).contains("'member1'");
+        assertThat(latest.getPlan()).containsIgnoringCase("member");
+    }
+
+    @Test
+    public void boundedCapacity(){
+        slowQueryLog.clear();
+        for (int i = 0; i < 5; i++) {
+            slowQueryLog.add(new SlowQuery(Instant.now(), i, "select " + i, "select " + i, null));
+        }
+
+        assertThat(slowQueryLog.snapshot()).extracting("sql").containsExactly("select 4", "select 3", "select 2");
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.monitoring;
+
+import org.assertj.core.api.AbstractAssert;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 테스트용 SQL 실행 수 검증
+ *
+ * <pre>
+ * StatementAssert.assertStatements(() -> repository.search(condition))
+ *         .hasCountAtMost(1)
+ *         .hasNoRepeatedShapes();
+ * </pre>
+ */
+public class StatementAssert extends AbstractAssert<StatementAssert, StatementRecorder.Recording> {
+
+    private static final int DEFAULT_REPEAT_THRESHOLD = 2;
+
+    private StatementAssert(StatementRecorder.Recording recording) {
+        super(recording, StatementAssert.class);
+    }
+
+    public static StatementAssert assertStatements(Runnable call) {
+        try (StatementRecorder.Recording recording = StatementRecorder.start()) {
+            call.run();
+            return new StatementAssert(recording);
+        }
+    }
+
+    public static <T> StatementAssert assertStatements(Supplier<T> call) {
+        return assertStatements((Runnable) call::get);
+    }
+
+    public StatementAssert hasCount(int expected) {
+        isNotNull();
+        if (actual.getStatementCount() != expected) {
+            failWithMessage("Expected <%d> statements but was <%d>: %s", expected, actual.getStatementCount(), actual.getShapes());
+        }
+        return this;
+    }
+
+    public StatementAssert hasCountAtMost(int budget) {
+        isNotNull();
+        if (actual.getStatementCount() > budget) {
+            failWithMessage("Expected at most <%d> statements but was <%d>: %s", budget, actual.getStatementCount(), actual.getShapes());
+        }
+        return this;
+    }
+
+    public StatementAssert hasShapeContaining(String fragment) {
+        isNotNull();
+        if (actual.getShapes().keySet().stream().noneMatch(shape -> shape.contains(fragment))) {
+            failWithMessage("Expected a statement containing <%s> but was: %s", fragment, actual.getShapes());
+        }
+        return this;
+    }
+
+    public StatementAssert hasNoShapeContaining(String fragment) {
+        isNotNull();
+        if (actual.getShapes().keySet().stream().anyMatch(shape -> shape.contains(fragment))) {
+            failWithMessage("Expected no statement containing <%s> but was: %s", fragment, actual.getShapes());
+        }
+        return this;
+    }
+
+    public StatementAssert hasNoRepeatedShapes() {
+        return hasNoRepeatedShapes(DEFAULT_REPEAT_THRESHOLD);
+    }
+
+    public StatementAssert hasNoRepeatedShapes(int threshold) {
+        isNotNull();
+        Map<String, Integer> repeated = actual.getRepeatedShapes(threshold);
+        if (!repeated.isEmpty()) {
+            failWithMessage("Expected no statement repeated <%d> times or more (possible N+1) but found: %s", threshold, repeated);
+        }
+        return this;
+    }
+
+    public StatementAssert hasRepeatedShapes() {
+        isNotNull();
+        if (actual.getRepeatedShapes(DEFAULT_REPEAT_THRESHOLD).isEmpty()) {
+            failWithMessage("Expected repeated statements but all were distinct: %s", actual.getShapes());
+        }
+        return this;
+    }
+}
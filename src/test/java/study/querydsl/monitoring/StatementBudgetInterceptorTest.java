@@ -0,0 +1,67 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// repeat-threshold=1 이면 SQL 을 한 번이라도 실행한 요청은 위반이다.
+@SpringBootTest(properties = "member.jdbc.statement-budget.repeat-threshold=1")
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class StatementBudgetInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    StatementBudgetProperties properties;
+
+    @AfterEach
+    public void restoreMode(){
+        properties.setMode(StatementBudgetProperties.Mode.WARN);
+    }
+
+    @Test
+    public void failMode_응답을_쓰기_전에_실패한다() throws Exception {
+        properties.setMode(StatementBudgetProperties.Mode.FAIL);
+
+        mockMvc.perform(get("/v3/members").param("size", "5"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    public void warnMode_는_로그만_남긴다(CapturedOutput output) throws Exception {
+        properties.setMode(StatementBudgetProperties.Mode.WARN);
+
+        mockMvc.perform(get("/v3/members").param("size", "5"))
+                .andExpect(status().isOk());
+
+        assertThat(output.getOut()).contains("GET /v3/members -> possible N+1");
+    }
+
+    @Test
+    public void 비동기_응답은_기록을_스레드에_남기지_않는다() throws Exception {
+        // MockMvc 는 요청 스레드 = 테스트 스레드
+        MvcResult result = mockMvc.perform(get("/members/export").param("username", "nobody"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(StatementRecorder.isRecording()).isFalse();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertThat(StatementRecorder.isRecording()).isFalse();
+    }
+}
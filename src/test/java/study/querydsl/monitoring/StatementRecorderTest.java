@@ -0,0 +1,71 @@
+package study.querydsl.monitoring;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.monitoring.StatementAssert.assertStatements;
+
+@SpringBootTest
+@Transactional
+class StatementRecorderTest {
+
+    @Autowired
+    EntityManager em;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before(){
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+
+        em.persist(new Member("member1",10,teamA));
+        em.persist(new Member("member2",20,teamB));
+        em.persist(new Member("member3",30,teamC));
+
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * 지연 로딩 member.team 을 루프에서 접근하면 1 + N
+     */
+    @Test
+    public void detectNPlusOne(){
+        assertStatements(() -> {
+            List<Member> members = queryFactory.selectFrom(member).fetch();
+            for (Member findMember : members) {
+                findMember.getTeam().getName();
+            }
+        }).hasCount(4).hasRepeatedShapes();
+    }
+
+    @Test
+    public void fetchJoinIsOneStatement(){
+        assertStatements(() -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .join(member.team, team).fetchJoin()
+                    .fetch();
+            for (Member findMember : members) {
+                findMember.getTeam().getName();
+            }
+        }).hasCountAtMost(1).hasNoRepeatedShapes();
+    }
+}
@@ -0,0 +1,111 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.BulkResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+// chunk 마다 커밋하므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+@SpringBootTest(properties = "member.bulk.chunk-size=2")
+class MemberJpaRepositoryBulkTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 1; i <= 5; i++) {
+                em.persist(new Member("bulk" + i, i * 10));
+            }
+        });
+    }
+
+    @AfterEach
+    public void cleanUp(){
+        tx.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'bulk%'").executeUpdate());
+    }
+
+    @Test
+    public void chunk_단위로_나눠서_수정한다(){
+        BulkResult result = memberJpaRepository.bulkUpdate(member.username.startsWith("bulk").and(member.age.goe(20)),
+                clause -> clause.set(member.age, member.age.add(1)));
+
+        assertThat(result.getAffected()).isEqualTo(4);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(ages()).containsExactly(10, 21, 31, 41, 51);
+    }
+
+    @Test
+    public void chunk_단위로_나눠서_삭제한다(){
+        BulkResult result = memberJpaRepository.bulkDelete(member.username.startsWith("bulk").and(member.age.lt(40)));
+
+        assertThat(result.getAffected()).isEqualTo(3);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(ages()).containsExactly(40, 50);
+    }
+
+    @Test
+    public void 영속성_컨텍스트의_엔티티를_detach_한다(){
+        // open-in-view 처럼 트랜잭션 없이 스레드에 묶인 EntityManager
+        EntityManager bound = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(bound));
+        try {
+            Member loaded = em.createQuery("select m from Member m where m.username = 'bulk1'", Member.class)
+                    .getSingleResult();
+            assertThat(em.contains(loaded)).isTrue();
+
+            memberJpaRepository.bulkUpdate(member.username.startsWith("bulk"),
+                    clause -> clause.set(member.age, member.age.add(1)));
+
+            assertThat(em.contains(loaded)).isFalse();
+            Member reloaded = em.createQuery("select m from Member m where m.username = 'bulk1'", Member.class)
+                    .getSingleResult();
+            assertThat(reloaded.getAge()).isEqualTo(11);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            bound.close();
+        }
+    }
+
+    @Test
+    public void 트랜잭션_안에서는_쓸_수_없다(){
+        assertThatThrownBy(() -> tx.executeWithoutResult(status ->
+                memberJpaRepository.bulkDelete(member.username.startsWith("bulk"))))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(ages()).hasSize(5);
+    }
+
+    private List<Integer> ages() {
+        return em.createQuery("select m.age from Member m where m.username like 'bulk%' order by m.age", Integer.class)
+                .getResultList();
+    }
+}
@@ -18,6 +18,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static study.querydsl.monitoring.StatementAssert.assertStatements;
 
 @SpringBootTest
 @Transactional
@@ -90,4 +91,28 @@ class MemberJpaRepositoryTest {
         assertThat(memberTeamDtos).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    public void searchByBuilder_ageLoe_와_정규화(){
+        Team team = new Team("builderTeam");
+        em.persist(team);
+        em.persist(new Member("builder1", 10, team));
+        em.persist(new Member("builder2", 20, team));
+        em.persist(new Member("builder3", 30, team));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("  builderTeam ");
+        condition.setAgeLoe(20);
+        assertThat(memberJpaRepository.searchByBuilder(condition)).extracting("username")
+                .containsExactlyInAnyOrder("builder1", "builder2");
+        assertThat(memberJpaRepository.search(condition)).extracting("username")
+                .containsExactlyInAnyOrder("builder1", "builder2");
+
+        // ageGoe > ageLoe 는 결과가 없으니 쿼리를 보내지 않는다.
+        condition.setAgeGoe(30);
+        assertStatements(() -> {
+            assertThat(memberJpaRepository.searchByBuilder(condition)).isEmpty();
+            assertThat(memberJpaRepository.search(condition)).isEmpty();
+        }).hasCount(0);
+    }
 }
\ No newline at end of file
@@ -5,17 +5,27 @@ import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberSearchShape;
+import study.querydsl.repository.support.PaginationProperties;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.monitoring.StatementAssert.assertStatements;
 
 @SpringBootTest
 @Transactional
@@ -28,6 +38,15 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberQueryRepository memberQueryRepository;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    PaginationProperties paginationProperties;
+
     @Test
     public void basicTest(){
         Member member = new Member("member1",10);
@@ -74,6 +93,62 @@ class MemberRepositoryTest {
         assertThat(memberTeamDtos).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    public void searchEveryShapeTest(){
+        Team team = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(team);
+        em.persist(teamB);
+
+        em.persist(new Member("member1",10,team));
+        em.persist(new Member("member2",20,team));
+        em.persist(new Member("member3",30,teamB));
+        em.persist(new Member("member4",40,teamB));
+
+        // 16가지 조건 조합 모두 Querydsl 동적 쿼리와 같은 결과여야 한다.
+        for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            if ((shape & MemberSearchShape.USERNAME) != 0) condition.setUsername("member3");
+            if ((shape & MemberSearchShape.TEAM_NAME) != 0) condition.setTeamName("teamB");
+            if ((shape & MemberSearchShape.AGE_GOE) != 0) condition.setAgeGoe(20);
+            if ((shape & MemberSearchShape.AGE_LOE) != 0) condition.setAgeLoe(30);
+
+            assertThat(MemberSearchShape.of(condition)).isEqualTo(shape);
+            assertThat(memberRepository.search(condition))
+                    .as("shape %d", shape)
+                    .containsExactlyInAnyOrderElementsOf(memberQueryRepository.search(condition));
+        }
+    }
+
+    @Test
+    public void searchAgeEqTest(){
+        Team team = new Team("teamA");
+        em.persist(team);
+        em.persist(new Member("member1",10,team));
+        em.persist(new Member("member2",20,team));
+        em.persist(new Member("member3",30,team));
+
+        // ageGoe == ageLoe 는 MemberPredicates 와 같이 age = ? 하나로 보낸다.
+        MemberSearchCondition point = new MemberSearchCondition();
+        point.setAgeGoe(20);
+        point.setAgeLoe(20);
+        List<List<MemberTeamDto>> result = new ArrayList<>();
+        assertStatements(() -> result.add(memberRepository.search(point)))
+                .hasCount(1)
+                .hasShapeContaining("age=?")
+                .hasNoShapeContaining("between")
+                .hasNoShapeContaining("age>=?");
+        assertThat(result.get(0)).extracting("username").containsExactly("member2");
+
+        MemberSearchCondition range = new MemberSearchCondition();
+        range.setAgeGoe(10);
+        range.setAgeLoe(20);
+        assertStatements(() -> memberRepository.search(range))
+                .hasShapeContaining("age between ? and ?");
+        assertThat(memberRepository.search(range)).extracting("username").containsExactly("member1", "member2");
+    }
+
     @Test
     public void searchPageSimpleTest(){
         Team team = new Team("teamA");
@@ -101,6 +176,173 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1","member2","member3");
     }
 
+    @Test
+    public void searchSliceTest(){
+        Team team = new Team("sliceTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("slice" + i, i * 10, team));
+        }
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sliceTeam");
+        condition.setAgeGoe(20);
+
+        // size + 1 건을 읽는 쿼리 하나로 끝난다. (count 없음)
+        List<Slice<MemberTeamDto>> result = new ArrayList<>();
+        assertStatements(() -> result.add(memberRepository.searchSlice(condition, PageRequest.of(0, 2))))
+                .hasCount(1);
+        Slice<MemberTeamDto> first = result.get(0);
+        assertThat(first.getContent()).extracting("username").containsExactly("slice2", "slice3");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 2));
+        assertThat(last.getContent()).extracting("username").containsExactly("slice4", "slice5");
+        assertThat(last.hasNext()).isFalse();
+
+        Slice<Member> sorted = memberTestRepository.applySlicing(condition, PageRequest.of(0, 3, Sort.by("age").descending()));
+        assertThat(sorted.getContent()).extracting("username").containsExactly("slice5", "slice4", "slice3");
+        assertThat(sorted.hasNext()).isTrue();
+    }
+
+    @Test
+    public void int_를_넘는_offset_은_잘라서_조회하지_않는다(){
+        // 잘라서 쓰면 엉뚱한 페이지가 나온다. 리포지토리 프록시가 IllegalArgumentException 을 감싸서 던진다.
+        PageRequest pageable = PageRequest.of(Integer.MAX_VALUE / 2, 10);
+
+        assertThatThrownBy(() -> memberRepository.searchSlice(new MemberSearchCondition(), pageable))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void deferredPaginationTest(){
+        Team team = new Team("deferredTeam");
+        em.persist(team);
+        em.persist(new Member("deferred1", 30, team));
+        em.persist(new Member("deferred2", 10, team));
+        em.persist(new Member("deferred3", 50, team));
+        em.persist(new Member("deferred4", 20, team));
+        em.persist(new Member("deferred5", 40, team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("deferredTeam");
+
+        // id in (...) 조회 결과를 id 페이징 순서(나이 내림차순)로 되돌린다.
+        Page<Member> page = memberTestRepository.applyDeferredPagination(condition,
+                PageRequest.of(1, 2, Sort.by("age").descending()));
+        assertThat(page.getContent()).extracting("username").containsExactly("deferred1", "deferred4");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent().get(0).getTeam().getName()).isEqualTo("deferredTeam");
+    }
+
+    @Test
+    public void searchPageComplex_deferredJoin_경계에서_페이지가_이어진다(){
+        Team team = new Team("pagingTeam");
+        em.persist(team);
+        List<Long> ids = new ArrayList<>();
+        // id 가 클수록 나이가 적다. 정렬이 없으면 (team_id, age) 인덱스 순서로 나올 수 있다.
+        for (int i = 0; i < 7; i++) {
+            Member member = new Member("paging" + i, 70 - i * 10, team);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pagingTeam");
+        condition.setAgeGoe(0);
+
+        long minOffset = paginationProperties.getDeferredJoinMinOffset();
+        paginationProperties.setDeferredJoinMinOffset(2);
+        try {
+            // 0 페이지는 한 번에, 1 페이지부터는 id 페이징 + 조회
+            List<Long> paged = new ArrayList<>();
+            for (int page = 0; page < 4; page++) {
+                memberRepository.searchPageComplex(condition, PageRequest.of(page, 2))
+                        .forEach(dto -> paged.add(dto.getMemberId()));
+            }
+            assertThat(paged).containsExactlyElementsOf(ids);
+        } finally {
+            paginationProperties.setDeferredJoinMinOffset(minOffset);
+        }
+    }
+
+    @Test
+    public void searchPageComplex_는_인덱스와_같은_정렬을_쓴다(){
+        Team team = new Team("pagingTeam");
+        em.persist(team);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Member member = new Member("paging" + i, i % 2 == 0 ? 10 : 20, team);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pagingTeam");
+
+        long minOffset = paginationProperties.getDeferredJoinMinOffset();
+        paginationProperties.setDeferredJoinMinOffset(2);
+        try {
+            // 나이 내림차순, 동률은 id 내림차순 (MemberColumns 와 같다)
+            List<Long> paged = new ArrayList<>();
+            for (int page = 0; page < 3; page++) {
+                memberRepository.searchPageComplex(condition, PageRequest.of(page, 2, Sort.by("age").descending()))
+                        .forEach(dto -> paged.add(dto.getMemberId()));
+            }
+            assertThat(paged).containsExactly(ids.get(3), ids.get(1), ids.get(4), ids.get(2), ids.get(0));
+
+            // 지원하지 않는 정렬은 id 오름차순
+            assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(0, 5, Sort.by("username").descending())))
+                    .extracting("memberId").containsExactlyElementsOf(ids);
+        } finally {
+            paginationProperties.setDeferredJoinMinOffset(minOffset);
+        }
+    }
+
+    @Test
+    public void searchByCursorTest(){
+        Team team = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(team);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1",40,team);
+        Member member2 = new Member("member2",20,team);
+        Member member3 = new Member("member3",20,teamB);
+        Member member4 = new Member("member4",10,teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberCursorPage first = memberRepository.searchByCursor(condition, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1","member2","member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberCursorPage second = memberRepository.searchByCursor(condition, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+
+        // 나이순 정렬 + id tiebreaker
+        MemberCursorPage byAge = memberRepository.searchByCursor(condition, MemberCursorSort.AGE, null, 2);
+        assertThat(byAge.getContent()).extracting("username").containsExactly("member4","member2");
+
+        MemberCursorPage byAgeNext = memberRepository.searchByCursor(condition, MemberCursorSort.AGE, byAge.getNextCursor(), 2);
+        assertThat(byAgeNext.getContent()).extracting("username").containsExactly("member3","member1");
+        assertThat(byAgeNext.isHasNext()).isFalse();
+    }
+
     @Test
     public void querydslPredicateExecutorTest(){
 
@@ -0,0 +1,105 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"member.pagination.approximate-count=true", "member.pagination.exact-count-threshold=0"})
+@Transactional
+class MemberCountEstimatorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    MemberCountEstimator countEstimator;
+
+    @BeforeEach
+    public void before(){
+        Team team = new Team("approxTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("approx" + i, i * 10, team));
+        }
+        countEstimator.refresh();
+    }
+
+    @Test
+    public void 조건_하나는_통계_그대로(){
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(teamCondition(null), PageRequest.of(0, 3));
+
+        assertThat(page).isInstanceOf(ApproximatePage.class);
+        ApproximatePage<MemberTeamDto> approximate = (ApproximatePage<MemberTeamDto>) page;
+        assertThat(approximate.getTotalElements()).isEqualTo(10);
+        assertThat(approximate.getTotalLowerBound()).isEqualTo(10);
+        assertThat(approximate.getTotalUpperBound()).isEqualTo(10);
+    }
+
+    @Test
+    public void 조건_둘은_실제_값이_범위_안에_있다(){
+        MemberSearchCondition condition = teamCondition(50);
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        assertThat(page).isInstanceOf(ApproximatePage.class);
+        ApproximatePage<MemberTeamDto> approximate = (ApproximatePage<MemberTeamDto>) page;
+        assertThat(approximate.getTotalLowerBound()).isLessThanOrEqualTo(5);
+        assertThat(approximate.getTotalUpperBound()).isGreaterThanOrEqualTo(5).isLessThanOrEqualTo(10);
+        assertThat(approximate.getTotalElements())
+                .isBetween(approximate.getTotalLowerBound(), approximate.getTotalUpperBound());
+    }
+
+    @Test
+    public void username_조건과_마지막_페이지는_정확히_센다(){
+        MemberSearchCondition condition = teamCondition(null);
+        condition.setUsername("approx1");
+        assertThat(memberRepository.searchPageSimple(condition, PageRequest.of(0, 3)))
+                .isNotInstanceOf(ApproximatePage.class);
+
+        Page<MemberTeamDto> lastPage = memberRepository.searchPageSimple(teamCondition(null), PageRequest.of(3, 3));
+        assertThat(lastPage).isNotInstanceOf(ApproximatePage.class);
+        assertThat(lastPage.getTotalElements()).isEqualTo(10);
+    }
+
+    @Test
+    public void applyPagination_도_추정한다(){
+        Page<Member> page = memberTestRepository.applyPaginationApproximate(teamCondition(null), PageRequest.of(0, 3));
+
+        assertThat(page).isInstanceOf(ApproximatePage.class);
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.getTotalElements()).isEqualTo(10);
+    }
+
+    @Test
+    public void Frechet_범위(){
+        CountEstimate estimate = CountEstimate.conjunction(80, 50, 100);
+        assertThat(estimate.getEstimate()).isEqualTo(40);
+        assertThat(estimate.getLowerBound()).isEqualTo(30);
+        assertThat(estimate.getUpperBound()).isEqualTo(50);
+    }
+
+    private static MemberSearchCondition teamCondition(Integer ageGoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("approxTeam");
+        condition.setAgeGoe(ageGoe);
+        return condition;
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+class MemberPredicatesTest {
+
+    @Test
+    public void 문자열은_trim_하고_공백뿐이면_조건이_없다(){
+        assertThat(MemberPredicates.where(condition(" member1 ", "  ", null, null)))
+                .isEqualTo(member.username.eq("member1"));
+        assertThat(MemberPredicates.where(new MemberSearchCondition())).isNull();
+    }
+
+    @Test
+    public void 나이_범위는_eq_나_between_하나로(){
+        assertThat(MemberPredicates.where(condition(null, null, 20, 20))).isEqualTo(member.age.eq(20));
+        assertThat(MemberPredicates.where(condition(null, "teamA", 20, 30)))
+                .isEqualTo(team.name.eq("teamA").and(member.age.between(20, 30)));
+        assertThat(MemberPredicates.where(condition(null, null, null, 30))).isEqualTo(member.age.loe(30));
+    }
+
+    @Test
+    public void 결과가_없는_조건(){
+        assertThat(MemberPredicates.isUnsatisfiable(condition(null, null, 31, 30))).isTrue();
+        assertThat(MemberPredicates.isUnsatisfiable(condition(null, null, 30, 30))).isFalse();
+        assertThat(MemberPredicates.isUnsatisfiable(condition(null, null, 31, null))).isFalse();
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,109 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelCountExecutorTest {
+
+    ParallelCountExecutor executor = new ParallelCountExecutor(properties(), new NoOpTransactionManager());
+
+    @AfterEach
+    public void after() {
+        executor.destroy();
+    }
+
+    @Test
+    public void contentAndCountRunConcurrently() {
+        // 둘 다 상대가 시작하기를 기다리므로 순서대로 실행되면 타임아웃이 난다.
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        Page<String> page = executor.getPage(() -> {
+            awaitOther(bothStarted);
+            return List.of("a", "b");
+        }, PageRequest.of(0, 2), () -> {
+            awaitOther(bothStarted);
+            return 10L;
+        });
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.getTotalElements()).isEqualTo(10L);
+    }
+
+    @Test
+    public void totalFromContentSkipsCount() {
+        Page<String> page = executor.getPage(() -> List.of("a"), PageRequest.of(0, 10), () -> {
+            throw new IllegalStateException("count must not be used");
+        });
+
+        assertThat(page.getTotalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    public void contentFailureReleasesPermit() {
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> executor.getPage(() -> {
+                throw new IllegalStateException("content failed");
+            }, PageRequest.of(0, 10), () -> 1L)).hasMessage("content failed");
+        }
+
+        // permit 이 새지 않았다면 계속 병렬로 실행된다.
+        AtomicInteger countThreads = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+        executor.getPage(() -> List.of("a", "b"), PageRequest.of(0, 2), () -> {
+            if (Thread.currentThread() != caller) {
+                countThreads.incrementAndGet();
+            }
+            return 2L;
+        });
+        assertThat(countThreads.get()).isEqualTo(1);
+    }
+
+    private static void awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PaginationProperties properties() {
+        PaginationProperties properties = new PaginationProperties();
+        properties.setParallelCount(true);
+        properties.setMaxConcurrentCounts(2);
+        return properties;
+    }
+
+    static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
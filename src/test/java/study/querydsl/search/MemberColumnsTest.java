@@ -0,0 +1,130 @@
+package study.querydsl.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnsTest {
+
+    Map<Long, MemberTeamDto> expected = new LinkedHashMap<>();
+    Map<Long, String> teamNames = new LinkedHashMap<>();
+
+    @Test
+    public void 모든_조건_조합이_전체_탐색과_같다() {
+        Random random = new Random(7);
+        MemberColumns columns = new MemberColumns(16);
+        for (long teamId = 1; teamId <= 5; teamId++) {
+            putTeam(columns, teamId, "team" + (teamId % 4)); // team1 이 두 팀
+        }
+        for (long id = 1; id <= 500; id++) {
+            Long teamId = random.nextInt(6) == 0 ? null : 1L + random.nextInt(5);
+            String username = "member" + random.nextInt(40);
+            int age = random.nextInt(60);
+            assertThat(columns.appendLoaded(id, username, age, teamId)).isTrue();
+            expected.put(id, dto(id, username, age, teamId));
+        }
+        columns.finishLoad();
+        assertMatches(columns, random);
+
+        // 변경: 나이 / 팀 / 이름 변경, 삭제, 작은 id 로 추가(순서가 어긋나는 경우), 팀 이름 변경
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + random.nextInt(600);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    columns.removeMember(id);
+                    expected.remove(id);
+                }
+                default -> {
+                    Long teamId = random.nextInt(6) == 0 ? null : 1L + random.nextInt(5);
+                    String username = "member" + random.nextInt(40);
+                    int age = random.nextInt(60);
+                    assertThat(columns.putMember(id, username, age, teamId)).isTrue();
+                    expected.put(id, dto(id, username, age, teamId));
+                }
+            }
+        }
+        putTeam(columns, 2L, "renamed");
+        expected.replaceAll((id, dto) -> dto(id, dto.getUsername(), dto.getAge(), dto.getTeamId()));
+        assertMatches(columns, random);
+        assertThat(columns.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    public void 모르는_팀이면_반영하지_않는다() {
+        MemberColumns columns = new MemberColumns(16);
+        assertThat(columns.putMember(1L, "member1", 10, 99L)).isFalse();
+        assertThat(columns.size()).isZero();
+    }
+
+    @Test
+    public void 지원하지_않는_정렬은_null() {
+        assertThat(RowOrder.of(Sort.unsorted())).isEqualTo(RowOrder.ID_ASC);
+        assertThat(RowOrder.of(Sort.by(Sort.Direction.DESC, "age"))).isEqualTo(RowOrder.AGE_DESC);
+        assertThat(RowOrder.of(Sort.by("username"))).isNull();
+        assertThat(RowOrder.of(Sort.by("age", "id"))).isNull();
+    }
+
+    private void assertMatches(MemberColumns columns, Random random) {
+        for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            for (int i = 0; i < 20; i++) {
+                MemberSearchCondition condition = new MemberSearchCondition();
+                if ((shape & MemberSearchShape.USERNAME) != 0) {
+                    condition.setUsername("member" + random.nextInt(40));
+                }
+                if ((shape & MemberSearchShape.TEAM_NAME) != 0) {
+                    condition.setTeamName(random.nextInt(5) == 0 ? "renamed" : "team" + random.nextInt(4));
+                }
+                if ((shape & MemberSearchShape.AGE_GOE) != 0) {
+                    condition.setAgeGoe(random.nextInt(60));
+                }
+                if ((shape & MemberSearchShape.AGE_LOE) != 0) {
+                    condition.setAgeLoe(random.nextInt(60));
+                }
+                for (RowOrder order : RowOrder.values()) {
+                    int[] rows = columns.select(MemberSearchShape.of(condition), condition, order);
+                    assertThat(columns.toDtos(rows, 0, rows.length))
+                            .as("shape=%s order=%s", MemberSearchShape.name(shape), order)
+                            .isEqualTo(bruteForce(condition, order));
+                }
+            }
+        }
+    }
+
+    private List<MemberTeamDto> bruteForce(MemberSearchCondition condition, RowOrder order) {
+        List<MemberTeamDto> result = new ArrayList<>();
+        for (MemberTeamDto dto : expected.values()) {
+            if ((condition.getUsername() == null || condition.getUsername().equals(dto.getUsername()))
+                    && (condition.getTeamName() == null || condition.getTeamName().equals(dto.getTeamName()))
+                    && (condition.getAgeGoe() == null || dto.getAge() >= condition.getAgeGoe())
+                    && (condition.getAgeLoe() == null || dto.getAge() <= condition.getAgeLoe())) {
+                result.add(dto);
+            }
+        }
+        Comparator<MemberTeamDto> comparator = switch (order) {
+            case ID_ASC, ID_DESC -> Comparator.comparing(MemberTeamDto::getMemberId);
+            case AGE_ASC, AGE_DESC -> Comparator.comparingInt(MemberTeamDto::getAge).thenComparing(MemberTeamDto::getMemberId);
+        };
+        result.sort(order.isDescending() ? comparator.reversed() : comparator);
+        return result;
+    }
+
+    private void putTeam(MemberColumns columns, long teamId, String name) {
+        columns.putTeam(teamId, name);
+        teamNames.put(teamId, name);
+    }
+
+    private MemberTeamDto dto(long id, String username, int age, Long teamId) {
+        return new MemberTeamDto(id, username, age, teamId, teamId != null ? teamNames.get(teamId) : null);
+    }
+}
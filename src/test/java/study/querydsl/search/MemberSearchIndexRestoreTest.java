@@ -0,0 +1,111 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// 인덱스는 자기 커넥션으로 읽으므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+@SpringBootTest
+class MemberSearchIndexRestoreTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @TempDir
+    Path dir;
+
+    TransactionTemplate tx;
+    JdbcTemplate jdbcTemplate;
+    MemberSearchIndex index;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("restoreTeam");
+            em.persist(team);
+            em.persist(new Member("restore1", 10, team));
+            em.persist(new Member("restore2", 20, team));
+            em.persist(new Member("restore3", 30, team));
+        });
+
+        MemberSearchIndexProperties properties = new MemberSearchIndexProperties();
+        properties.setEnabled(true);
+        properties.getSnapshot().setPath(dir.resolve("index.snap"));
+        properties.getSnapshot().setReplayOverlap(Duration.ZERO);
+        index = new MemberSearchIndex(properties, dataSource);
+    }
+
+    @AfterEach
+    public void cleanUp(){
+        index.destroy();
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'restore%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'restoreTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void 스냅샷_이후_변경_추가_삭제를_반영한다(){
+        index.rebuild(); // DB 에서 읽고 스냅샷을 쓴다.
+
+        // 스냅샷 이후 수정 -> modified_at 으로 다시 읽는다.
+        tx.executeWithoutResult(status -> findMember("restore1").setAge(11));
+        // 스냅샷 이후 삭제 -> 회원 수가 달라서 id 목록과 맞춘다.
+        tx.executeWithoutResult(status -> em.remove(findMember("restore2")));
+        // modified_at 없이 JDBC 로 추가 -> 스냅샷의 최대 id 보다 큰 id 로 다시 읽는다.
+        Long teamId = jdbcTemplate.queryForObject("select id from team where name = 'restoreTeam'", Long.class);
+        Long newId = jdbcTemplate.queryForObject("select max(member_id) + 1000 from member", Long.class);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) values (?, 'restore4', 40, ?)", newId, teamId);
+
+        MemberColumns restored = index.restore();
+
+        assertThat(restored).isNotNull();
+        assertThat(search(restored, "restore1")).extracting("age").containsExactly(11);
+        assertThat(search(restored, "restore2")).isEmpty();
+        assertThat(search(restored, "restore3")).extracting("age").containsExactly(30);
+        assertThat(search(restored, "restore4")).extracting("memberId", "age").containsExactly(tuple(newId, 40));
+        assertThat(restored.size()).isEqualTo(jdbcTemplate.queryForObject("select count(*) from member", Integer.class));
+        assertThat(restored.maxId()).isEqualTo(newId);
+    }
+
+    private Member findMember(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+
+    private static List<MemberTeamDto> search(MemberColumns columns, String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        int[] rows = columns.select(MemberSearchShape.of(condition), condition, RowOrder.ID_ASC);
+        return columns.toDtos(rows, 0, rows.length);
+    }
+}
@@ -0,0 +1,154 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import javax.sql.DataSource;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// 인덱스는 커밋 후에 반영되므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+@SpringBootTest(properties = "member.search.index.enabled=true")
+class MemberSearchIndexTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchIndex index;
+
+    TransactionTemplate tx;
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void before(){
+        tx = new TransactionTemplate(transactionManager);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        awaitUntil(index::isUsable);
+    }
+
+    @AfterEach
+    public void cleanUp(){
+        // 벌크 삭제는 리스너를 거치지 않으므로 인덱스를 다시 적재한다.
+        tx.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'index%'").executeUpdate());
+        index.invalidate();
+        awaitUntil(index::isUsable);
+    }
+
+    @Test
+    public void 커밋된_변경만_반영하고_롤백된_변경은_버린다(){
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("indexCommit", 10));
+            em.flush();
+            // 커밋 전에는 인덱스에 없고, 쓰기 트랜잭션의 검색은 DB 로 간다.
+            assertThat(index.isUsable()).isFalse();
+            assertThat(index.search(username("indexCommit"))).isEmpty();
+            assertThat(memberRepository.search(username("indexCommit"))).extracting("username").containsExactly("indexCommit");
+        });
+        assertThat(index.search(username("indexCommit"))).extracting("username", "age").containsExactly(
+                tuple("indexCommit", 10));
+
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("indexRollback", 20));
+            em.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(index.search(username("indexRollback"))).isEmpty();
+        assertThat(index.isUsable()).isTrue();
+    }
+
+    @Test
+    public void 적재_중에_커밋된_변경은_새_컬럼에_다시_반영한다(){
+        boolean installed = index.install("test", () -> {
+            MemberColumns loaded = index.load();
+            // 읽은 뒤에 커밋된 회원은 loaded 에 없다.
+            tx.executeWithoutResult(status -> em.persist(new Member("indexReplay", 30)));
+            return loaded;
+        });
+
+        assertThat(installed).isTrue();
+        assertThat(index.isUsable()).isTrue();
+        assertThat(index.search(username("indexReplay"))).extracting("age").containsExactly(30);
+    }
+
+    @Test
+    public void 무효화되면_다시_적재할_때까지_DB_로_검색한다(){
+        // 리스너를 거치지 않는 변경
+        insertWithJdbc("indexJdbc", 40);
+        assertThat(index.search(username("indexJdbc"))).isEmpty();
+
+        // 모니터를 잡고 있는 동안에는 rebuild 가 끝나지 않는다.
+        synchronized (index) {
+            index.invalidate();
+            assertThat(index.isUsable()).isFalse();
+            assertThat(memberRepository.search(username("indexJdbc"))).extracting("age").containsExactly(40);
+        }
+
+        awaitUntil(index::isUsable);
+        assertThat(index.search(username("indexJdbc"))).extracting("age").containsExactly(40);
+        assertThat(memberRepository.search(username("indexJdbc"))).extracting("age").containsExactly(40);
+    }
+
+    @Test
+    public void 적재가_실패하면_다시_시도한다(){
+        insertWithJdbc("indexRetry", 50);
+
+        index.rebuild(() -> {
+            throw new IllegalStateException("load failed");
+        });
+
+        // 실패한 적재는 기존 컬럼을 그대로 두고, 1초 뒤 DB 에서 다시 읽는다.
+        assertThat(index.search(username("indexRetry"))).isEmpty();
+        awaitUntil(() -> !index.search(username("indexRetry")).isEmpty());
+        assertThat(index.search(username("indexRetry"))).extracting("age").containsExactly(50);
+        assertThat(index.isUsable()).isTrue();
+    }
+
+    private void insertWithJdbc(String username, int age) {
+        Long id = jdbcTemplate.queryForObject("select max(member_id) + 1000 from member", Long.class);
+        jdbcTemplate.update("insert into member (member_id, username, age) values (?, ?, ?)", id != null ? id : 1000L, username, age);
+    }
+
+    private static MemberSearchCondition username(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        return condition;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
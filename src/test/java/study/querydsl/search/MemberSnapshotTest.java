@@ -0,0 +1,83 @@
+package study.querydsl.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 쓰고_읽으면_같은_검색_결과() throws Exception {
+        MemberColumns columns = sample();
+        Instant watermark = Instant.parse("2026-01-01T00:00:00Z");
+        Path path = dir.resolve("index.snap");
+
+        MemberSnapshot.capture(columns, watermark).write(path);
+        MemberSnapshot read = MemberSnapshot.read(path);
+
+        assertThat(read.watermark).isEqualTo(watermark);
+        assertThat(read.maxMemberId).isEqualTo(columns.maxId());
+        MemberColumns restored = read.toColumns();
+        assertThat(restored.size()).isEqualTo(columns.size());
+        assertThat(all(restored)).isEqualTo(all(columns));
+        // 같은 이름은 문자열 하나를 공유한다.
+        assertThat(read.usernames[0]).isSameAs(read.usernames[2]);
+        assertThat(Files.exists(dir.resolve("index.snap.tmp"))).isFalse();
+    }
+
+    @Test
+    public void 스냅샷_이후_삭제된_회원을_정리한다() {
+        MemberColumns columns = sample();
+        int removed = columns.removeMissing(new long[]{1L, 3L, 10L});
+        assertThat(removed).isEqualTo(2);
+        assertThat(all(columns)).extracting(MemberTeamDto::getMemberId).containsExactly(1L, 3L, 10L);
+    }
+
+    @Test
+    public void 손상된_파일은_읽지_않는다() throws Exception {
+        Path path = dir.resolve("index.snap");
+        MemberSnapshot.capture(sample(), Instant.now()).write(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            file.write(0x7F);
+        }
+        assertThatThrownBy(() -> MemberSnapshot.read(path))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    private static MemberColumns sample() {
+        MemberColumns columns = new MemberColumns(16);
+        columns.putTeam(1L, "teamA");
+        columns.putTeam(2L, "teamB");
+        columns.putTeam(3L, "teamC");
+        columns.appendLoaded(1L, "member1", 10, 1L);
+        columns.appendLoaded(2L, "member2", 20, 2L);
+        columns.appendLoaded(3L, "member1", 30, null);
+        columns.appendLoaded(4L, "member4", 40, 2L);
+        columns.finishLoad();
+        // 적재 후 변경: 작은 id 뒤에 붙은 큰 id, 팀 삭제, 이름 변경
+        columns.putMember(10L, "member10", 15, 1L);
+        columns.removeTeam(3L);
+        columns.putTeam(2L, "renamed");
+        return columns;
+    }
+
+    private static List<MemberTeamDto> all(MemberColumns columns) {
+        int[] rows = columns.select(0, new MemberSearchCondition(), RowOrder.ID_ASC);
+        return columns.toDtos(rows, 0, rows.length);
+    }
+}
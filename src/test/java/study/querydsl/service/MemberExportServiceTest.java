@@ -0,0 +1,69 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberExportFormat;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberExportService memberExportService;
+
+    @BeforeEach
+    public void before(){
+        Team team = new Team("teamA");
+        Team teamB = new Team("team,B");
+        em.persist(team);
+        em.persist(teamB);
+
+        em.persist(new Member("member1",10,team));
+        em.persist(new Member("member2",20,team));
+        em.persist(new Member("member3",30,teamB));
+    }
+
+    @Test
+    public void exportNdjson() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = memberExportService.export(condition, MemberExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"username\":\"member1\"");
+        assertThat(lines[1]).contains("\"username\":\"member2\"");
+    }
+
+    @Test
+    public void exportCsv() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member3");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        memberExportService.export(condition, MemberExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[0]).isEqualTo("memberId,username,age,teamId,teamName");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).contains(",member3,30,").endsWith(",\"team,B\"");
+    }
+}
@@ -0,0 +1,108 @@
+package study.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// chunk 마다 커밋하므로 테스트 트랜잭션으로 감싸지 않고 직접 정리한다.
+@SpringBootTest(properties = "member.import.chunk-size=2")
+class MemberImportServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberImportService memberImportService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    public void cleanUp(){
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'import%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'importTeam%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void importNdjson() throws Exception {
+        String body = """
+                {"username":"import1","age":10,"teamName":"importTeamA"}
+                {"username":"import2","age":20,"teamName":"importTeamA"}
+                {"username":"import3","age":30,"teamName":"importTeamB"}
+                {"username":"import4","age":40}
+                {"username":"import5","age":50,"teamName":"importTeamA"}
+                """;
+
+        MemberImportResult result = memberImportService.importNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(5);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(result.getTeamsCreated()).isEqualTo(2);
+        assertThat(result.isCompleted()).isTrue();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("importTeamA");
+        List<MemberTeamDto> teamA = memberRepository.search(condition);
+        assertThat(teamA).extracting("username").containsExactlyInAnyOrder("import1", "import2", "import5");
+    }
+
+    @Test
+    public void importStopsAtInvalidLine() throws Exception {
+        String body = """
+                {"username":"import1","age":10,"teamName":"importTeamA"}
+                {"username":"import2","age":20}
+                {"username":"import3","age":30}
+                {"age":40}
+                {"username":"import5","age":50}
+                """;
+
+        MemberImportResult result = memberImportService.importNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // 잘못된 줄 앞까지는 커밋하고, 그 줄부터 다시 보내면 된다.
+        assertThat(result.isCompleted()).isFalse();
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailedLine()).isEqualTo(4);
+        assertThat(result.getError()).contains("username");
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("import3");
+        assertThat(memberRepository.search(condition)).hasSize(1);
+        condition.setUsername("import5");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void importStopsAtMalformedJson() throws Exception {
+        String body = """
+                {"username":"import1","age":10}
+                {"username":"import2","age":"twenty"}
+                """;
+
+        MemberImportResult result = memberImportService.importNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailedLine()).isEqualTo(2);
+    }
+}
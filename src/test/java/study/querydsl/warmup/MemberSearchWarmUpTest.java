@@ -0,0 +1,121 @@
+package study.querydsl.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import study.querydsl.cache.MemberCountCache;
+import study.querydsl.cache.MemberSearchResultCache;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.monitoring.SearchShapeStats;
+import study.querydsl.repository.support.MemberPredicates;
+import study.querydsl.repository.support.MemberSearchShape;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 테스트 설정(config/application.yml)은 워밍업을 끄므로 여기서만 켠다.
+@SpringBootTest(properties = {"member.search.warm-up.enabled=true", "member.search.warm-up.iterations=1"})
+class MemberSearchWarmUpTest {
+
+    @Autowired
+    MemberSearchWarmUp warmUp;
+
+    @Autowired
+    MemberSearchWarmUpProperties properties;
+
+    @Autowired
+    ApplicationAvailability availability;
+
+    @Autowired
+    SearchShapeStats shapeStats;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    MemberSearchResultCache resultCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    AtomicReference<ReadinessState> readinessDuringWarmUp;
+
+    @TestConfiguration
+    static class ReadinessProbe {
+
+        // 기동 중 첫 search 호출(워밍업)에서 본 readiness
+        @Bean
+        AtomicReference<ReadinessState> readinessDuringWarmUp() {
+            return new AtomicReference<>();
+        }
+
+        @Bean
+        Advisor readinessProbeAdvisor(ObjectProvider<ApplicationAvailability> availability,
+                                      ObjectProvider<AtomicReference<ReadinessState>> readinessDuringWarmUp) {
+            AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+            advisor.setExpression("execution(* study.querydsl.repository.MemberJpaRepository.search(..))");
+            advisor.setAdvice((MethodInterceptor) invocation -> {
+                readinessDuringWarmUp.getObject().compareAndSet(null, availability.getObject().getReadinessState());
+                return invocation.proceed();
+            });
+            return advisor;
+        }
+    }
+
+    @Test
+    public void 워밍업이_끝난_뒤에_ready(){
+        // 워밍업 중에는 아직 트래픽을 받지 않고, 끝난 뒤에 ACCEPTING_TRAFFIC 이 된다.
+        assertThat(readinessDuringWarmUp.get()).isNotNull().isNotEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    public void 모든_shape_를_실행하고_흔적은_지운다(){
+        int calls = warmUp.warmUp();
+
+        // shape 마다 search 2, 페이지 3, slice 1, 커서 정렬별 1~2
+        assertThat(calls).isGreaterThanOrEqualTo(MemberSearchShape.SHAPE_COUNT * 8);
+        for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            assertThat(shapeStats.executions(shape)).isZero();
+        }
+        assertThat(countCache.size()).isZero();
+        assertThat(resultCache.size()).isZero();
+        assertThat(meterRegistry.find("member.repository.query").meters()).isEmpty();
+    }
+
+    @Test
+    public void 마감_시각이_지나면_다음_호출_전에_멈춘다(){
+        Duration timeout = properties.getTimeout();
+        properties.setTimeout(Duration.ZERO);
+        try {
+            assertThat(warmUp.warmUp()).isZero();
+        } finally {
+            properties.setTimeout(timeout);
+        }
+        assertThat(countCache.size()).isZero();
+        assertThat(resultCache.size()).isZero();
+    }
+
+    @Test
+    public void shape_별_조건(){
+        for (int shape = 0; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            for (int iteration = 0; iteration < 100; iteration++) {
+                MemberSearchCondition condition = MemberSearchWarmUp.condition(shape, iteration);
+                assertThat(MemberSearchShape.of(condition)).isEqualTo(shape);
+                assertThat(MemberPredicates.isUnsatisfiable(condition)).isFalse();
+            }
+        }
+    }
+}